@@ -23,17 +23,20 @@ import io.minecloud.db.redis.RedisDatabase;
 import io.minecloud.db.redis.msg.binary.MessageOutputStream;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
 import io.minecloud.models.player.PlayerData;
+import io.minecloud.models.player.PlayerLocationStore;
 import io.minecloud.models.plugins.PluginType;
 import io.minecloud.models.server.Server;
+import io.minecloud.models.server.ServerStatus;
+import io.minecloud.models.server.ServerStatusStore;
 import io.minecloud.models.server.World;
 import io.minecloud.models.server.type.ServerType;
 import org.bukkit.Bukkit;
 import org.bukkit.WorldCreator;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.util.FileUtil;
-import redis.clients.jedis.Jedis;
 
 import java.io.File;
 import java.io.IOException;
@@ -45,10 +48,18 @@ import java.util.List;
 import java.util.logging.Level;
 
 public class MineCloudPlugin extends JavaPlugin {
+    // live stats go to redis every run, the full document only this often or on a large ram swing
+    private static final long MONGO_SYNC_INTERVAL = 300_000L;
+    private static final int RAM_SAVE_DELTA = 256;
+
     private Cached<Server> server;
     private MongoDatabase mongo;
     private RedisDatabase redis;
     private String serverId;
+    private ServerStatusStore statusStore;
+    private PlayerLocationStore playerLocations;
+    private long lastSaved;
+    private int lastSavedRam = -1;
 
     @Override
     public void onEnable() {
@@ -57,6 +68,8 @@ public class MineCloudPlugin extends JavaPlugin {
         serverId = System.getenv("server_id");
         mongo = MineCloud.instance().mongo();
         redis = MineCloud.instance().redis();
+        statusStore = ServerStatusStore.create(redis);
+        playerLocations = PlayerLocationStore.create(redis);
 
         try {
             Files.write(ManagementFactory.getRuntimeMXBean().getName().split("@")[0].getBytes(Charset.defaultCharset()),
@@ -68,25 +81,39 @@ public class MineCloudPlugin extends JavaPlugin {
         new BukkitRunnable() {
             @Override
             public void run() {
-                Server server = mongo.repositoryBy(Server.class).findFirst(serverId);
                 Runtime runtime = Runtime.getRuntime();
+                int ramUsage = (int) ((runtime.totalMemory() - runtime.freeMemory()) / 1048576);
+                double tps = fetchTps();
+
+                statusStore.publish(serverId, ServerStatus.create(ramUsage, tps, Bukkit.getOnlinePlayers().size()));
+                playerLocations.refresh(serverId, onlinePlayers());
+
+                long now = System.currentTimeMillis();
+                boolean ramChanged = Math.abs(ramUsage - lastSavedRam) >= RAM_SAVE_DELTA;
+
+                if (!ramChanged && (now - lastSaved) < MONGO_SYNC_INTERVAL) {
+                    if (!mongo.repositoryBy(Server.class).exists("_id", serverId)) {
+                        getLogger().info("Server removed from db, shutting down");
+                        Bukkit.shutdown();
+                    }
 
-                if (server == null) {
-                    getLogger().info("Server removed from db, shutting down");
-                    Bukkit.shutdown();
                     return;
                 }
 
-                server.setRamUsage((int) ((runtime.totalMemory() - runtime.freeMemory()) / 1048576));
-                server.setTps(fetchTps());
-                updatePlayers(server);
-
-                mongo.repositoryBy(Server.class).save(server);
+                boolean exists = mongo.repositoryBy(Server.class).update(serverId)
+                        .set("ramUsage", ramUsage)
+                        .set("tps", tps)
+                        .set("onlinePlayers", onlinePlayers())
+                        .apply();
 
-                //Heartbeat
-                try (Jedis jedis = redis.grabResource()) {
-                    jedis.hset("server:" + server.entityId(), "heartbeat", String.valueOf(System.currentTimeMillis()));
+                if (!exists) {
+                    getLogger().info("Server removed from db, shutting down");
+                    Bukkit.shutdown();
+                    return;
                 }
+
+                lastSaved = now;
+                lastSavedRam = ramUsage;
             }
         }.runTaskTimerAsynchronously(this, 40, 200);
 
@@ -222,9 +249,7 @@ public class MineCloudPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        try (Jedis jedis = this.redis.grabResource()) {
-            jedis.hdel("server:" + server().entityId(), "heartbeat");
-        }
+        statusStore.clear(serverId);
 
         mongo.repositoryBy(Server.class).deleteById(serverId);
 
@@ -239,22 +264,28 @@ public class MineCloudPlugin extends JavaPlugin {
         }
     }
 
-    public void updatePlayers(Server server) {
+    public List<PlayerData> onlinePlayers() {
         List<PlayerData> onlinePlayers = new ArrayList<>();
 
         Bukkit.getOnlinePlayers().stream()
-                .forEach((player) -> {
-                    PlayerData data = new PlayerData();
+                .forEach((player) -> onlinePlayers.add(playerData(player)));
+
+        return onlinePlayers;
+    }
 
-                    data.setHealth(player.getHealth());
-                    data.setMaxHealth(player.getMaxHealth());
-                    data.setName(player.getName());
-                    data.setId(player.getUniqueId().toString());
+    public PlayerData playerData(Player player) {
+        PlayerData data = new PlayerData();
 
-                    onlinePlayers.add(data);
-                });
+        data.setHealth(player.getHealth());
+        data.setMaxHealth(player.getMaxHealth());
+        data.setName(player.getName());
+        data.setId(player.getUniqueId().toString());
 
-        server.setOnlinePlayers(onlinePlayers);
+        return data;
+    }
+
+    public void updatePlayers(Server server) {
+        server.setOnlinePlayers(onlinePlayers());
     }
 
     public Server server() {
@@ -265,6 +296,10 @@ public class MineCloudPlugin extends JavaPlugin {
         return server.get();
     }
 
+    public PlayerLocationStore playerLocations() {
+        return playerLocations;
+    }
+
     public MongoDatabase mongo() {
         return mongo;
     }
@@ -15,6 +15,7 @@
  */
 package io.minecloud.bukkit;
 
+import com.mongodb.BasicDBObject;
 import io.minecloud.models.player.PlayerData;
 import io.minecloud.models.server.Server;
 import org.bukkit.Bukkit;
@@ -28,7 +29,7 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.List;
+import java.util.UUID;
 
 public class PlayerTracker implements Listener {
     private MineCloudPlugin plugin;
@@ -39,33 +40,28 @@ public class PlayerTracker implements Listener {
 
     @EventHandler
     public void playerJoin(PlayerJoinEvent event) {
+        PlayerData data = plugin.playerData(event.getPlayer());
+
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             Server server = plugin.server();
-            List<PlayerData> onlinePlayers = server.onlinePlayers();
-            Player player = event.getPlayer();
-            PlayerData data = new PlayerData();
-
-            data.setHealth(player.getHealth());
-            data.setMaxHealth(player.getMaxHealth());
-            data.setName(player.getName());
-            data.setId(player.getUniqueId().toString());
 
-            onlinePlayers.add(data);
-
-            server.setOnlinePlayers(onlinePlayers);
-            plugin.updatePlayers(server);
-            plugin.mongo().repositoryBy(Server.class).save(server);
+            server.onlinePlayers().add(data);
+            plugin.mongo().repositoryBy(Server.class).push(server, "onlinePlayers", data);
+            plugin.playerLocations().joinedServer(data, server.entityId());
         });
     }
 
     @EventHandler
     public void playerQuit(PlayerQuitEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             Server server = plugin.server();
 
-            server.removePlayer(event.getPlayer().getUniqueId());
-            plugin.updatePlayers(server);
-            plugin.mongo().repositoryBy(Server.class).save(server);
+            server.removePlayer(id);
+            plugin.mongo().repositoryBy(Server.class)
+                    .pull(server, "onlinePlayers", new BasicDBObject("id", id.toString()));
+            plugin.playerLocations().leftServer(id, server.entityId());
         });
     }
 }
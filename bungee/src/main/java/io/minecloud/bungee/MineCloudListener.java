@@ -16,16 +16,22 @@
 package io.minecloud.bungee;
 
 import io.minecloud.models.bungee.Bungee;
+import io.minecloud.models.player.PlayerData;
+import io.minecloud.models.server.PlayerCount;
 import io.minecloud.models.server.Server;
 import io.minecloud.models.server.ServerRepository;
+import io.minecloud.models.server.type.ServerType;
 import net.md_5.bungee.api.ServerPing;
 import net.md_5.bungee.api.config.ServerInfo;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
 import net.md_5.bungee.api.event.ProxyPingEvent;
 import net.md_5.bungee.api.event.ServerKickEvent;
 import net.md_5.bungee.api.plugin.Listener;
 import net.md_5.bungee.event.EventHandler;
 
-import java.util.Collection;
+import java.util.UUID;
 
 public class MineCloudListener implements Listener {
     private long lastUpdated = 0;
@@ -57,12 +63,12 @@ public class MineCloudListener implements Listener {
                 return;
 
             ServerRepository repository = plugin.mongo.repositoryBy(Server.class);
-            Collection<Server> servers = repository.find(repository.createQuery().field("network").equal(bungee.network()))
-                    .asList();
 
-            for (Server server : servers) {
-                online += server.onlinePlayers().size();
-                max += server.type().maxPlayers();
+            for (PlayerCount count : repository.playerCounts(bungee.network())) {
+                ServerType type = plugin.mongo.cached(ServerType.class, count.type());
+
+                online += count.players();
+                max += type == null ? 0 : type.maxPlayers() * count.servers();
             }
 
             onlinePlayers = online;
@@ -75,6 +81,26 @@ public class MineCloudListener implements Listener {
         event.setResponse(ping);
     }
 
+    @EventHandler
+    public void postLogin(PostLoginEvent event) {
+        ProxiedPlayer player = event.getPlayer();
+        PlayerData data = new PlayerData();
+
+        data.setId(player.getUniqueId().toString());
+        data.setName(player.getName());
+
+        plugin.getProxy().getScheduler().runAsync(plugin,
+                () -> plugin.playerLocations.joinedProxy(data, System.getenv("bungee_id")));
+    }
+
+    @EventHandler
+    public void disconnect(PlayerDisconnectEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+        String name = event.getPlayer().getName();
+
+        plugin.getProxy().getScheduler().runAsync(plugin, () -> plugin.playerLocations.leftProxy(id, name));
+    }
+
     @EventHandler
     public void serverKick(ServerKickEvent event) {
         String reason = event.getKickReason().toLowerCase();
@@ -24,9 +24,13 @@ import io.minecloud.db.mongo.MongoDatabase;
 import io.minecloud.db.redis.RedisDatabase;
 import io.minecloud.db.redis.msg.MessageType;
 import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.cluster.Teleport;
+import io.minecloud.db.redis.msg.cluster.TeleportType;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.type.BungeeType;
+import io.minecloud.models.player.PlayerLocationStore;
 import io.minecloud.models.plugins.PluginType;
 import io.minecloud.models.server.Server;
 import io.minecloud.models.server.ServerRepository;
@@ -43,7 +47,6 @@ import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +56,7 @@ public class MineCloudPlugin extends Plugin {
     Cached<Bungee> bungee;
     MongoDatabase mongo;
     RedisDatabase redis;
+    PlayerLocationStore playerLocations;
 
     @Override
     public void onEnable() {
@@ -60,6 +64,7 @@ public class MineCloudPlugin extends Plugin {
 
         mongo = MineCloud.instance().mongo();
         redis = MineCloud.instance().redis();
+        playerLocations = PlayerLocationStore.create(redis);
 
         try {
             Files.write(ManagementFactory.getRuntimeMXBean().getName().split("@")[0].getBytes(Charset.defaultCharset()),
@@ -97,18 +102,19 @@ public class MineCloudPlugin extends Plugin {
 
         redis.addChannel(SimpleRedisChannel.create("teleport", redis)
                 .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
+                    Teleport teleport = MessageRegistry.decode(null, message, Teleport.class);
+
+                    if (teleport == null) {
                         return;
                     }
 
-                    MessageInputStream stream = message.contents();
-                    ProxiedPlayer player = getProxy().getPlayer(stream.readString());
+                    ProxiedPlayer player = getProxy().getPlayer(teleport.player());
 
                     if (player == null) {
                         return;
                     }
 
-                    String name = stream.readString();
+                    String name = teleport.server();
                     ServerInfo info = getProxy().getServerInfo(name);
 
                     if (info == null) {
@@ -126,19 +132,19 @@ public class MineCloudPlugin extends Plugin {
 
         redis.addChannel(SimpleRedisChannel.create("teleport-type", redis)
                 .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
+                    TeleportType teleport = MessageRegistry.decode(null, message, TeleportType.class);
+
+                    if (teleport == null) {
                         return;
                     }
 
-                    MessageInputStream stream = message.contents();
-                    ProxiedPlayer player = getProxy().getPlayer(stream.readString());
+                    ProxiedPlayer player = getProxy().getPlayer(teleport.player());
 
                     if (player == null) {
                         return;
                     }
 
-                    ServerType type = mongo.repositoryBy(ServerType.class)
-                            .findFirst(stream.readString());
+                    ServerType type = mongo.cached(ServerType.class, teleport.type());
 
                     if (type == null) {
                         getLogger().log(Level.SEVERE, "Received teleport message with invalid server type");
@@ -146,22 +152,23 @@ public class MineCloudPlugin extends Plugin {
                     }
 
                     ServerRepository repository = mongo.repositoryBy(Server.class);
-                    List<Server> servers = repository.find(repository.createQuery()
+                    String name = repository.leastPopulated(repository.createQuery()
                             .field("network").equal(bungee().network())
                             .field("type").equal(type)
                             .field("port").notEqual(-1)
-                            .field("ramUsage").notEqual(-1))
-                            .asList();
+                            .field("ramUsage").notEqual(-1));
 
-                    Collections.sort(servers, (a, b) -> a.onlinePlayers().size() - b.onlinePlayers().size());
+                    if (name == null) {
+                        getLogger().warning("No running " + type.name() + " server to teleport " + player.getName() + " to");
+                        return;
+                    }
 
-                    Server server = servers.get(0);
-                    ServerInfo info = getProxy().getServerInfo(server.name());
+                    ServerInfo info = getProxy().getServerInfo(name);
 
                     if (info == null) {
-                        getLogger().warning("Cannot find " + server.name() + " in ServerInfo store, adding.");
-                        addServer(server);
-                        info = getProxy().getServerInfo(server.name());
+                        getLogger().warning("Cannot find " + name + " in ServerInfo store, adding.");
+                        addServer(repository.findFirst(name));
+                        info = getProxy().getServerInfo(name);
                     }
 
                     player.connect(info);
@@ -219,12 +226,9 @@ public class MineCloudPlugin extends Plugin {
         });
 
         getProxy().getScheduler().schedule(this, () -> {
-            this.redis.connected(); //Checks for Redis death, if it's dead it will reconnect.
-
             ServerRepository repository = mongo.repositoryBy(Server.class);
-            List<Server> servers = repository.find(repository.createQuery()
-                    .field("network").equal(bungee().network()))
-                    .asList();
+            List<Server> servers = repository.findResolved(repository.createQuery()
+                    .field("network").equal(bungee().network()));
 
             servers.removeIf((s) -> s.port() == -1);
             servers.forEach(this::addServer);
@@ -17,12 +17,13 @@ package io.minecloud.bungee;
 
 import io.minecloud.models.server.Server;
 import io.minecloud.models.server.ServerRepository;
+import io.minecloud.models.server.type.ServerType;
+import io.minecloud.models.server.type.ServerTypeRepository;
 import net.md_5.bungee.api.AbstractReconnectHandler;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
-import java.util.Collections;
 import java.util.List;
 
 public class ReconnectHandler extends AbstractReconnectHandler {
@@ -38,16 +39,18 @@ public class ReconnectHandler extends AbstractReconnectHandler {
 
         if (info == null) {
             ServerRepository repository = plugin.mongo.repositoryBy(Server.class);
-            List<Server> servers = repository.find(repository.createQuery()
-                    .field("network").equal(plugin.bungee().network())
-                    .field("ramUsage").notEqual(-1))
+            ServerTypeRepository typeRepository = plugin.mongo.repositoryBy(ServerType.class);
+            List<ServerType> defaultTypes = typeRepository.find(typeRepository.createQuery()
+                    .field("defaultServer").equal(true))
                     .asList();
+            String server = repository.leastPopulated(repository.createQuery()
+                    .field("network").equal(plugin.bungee().network())
+                    .field("type").in(defaultTypes)
+                    .field("ramUsage").notEqual(-1));
 
-            servers.removeIf((s) -> !s.type().defaultServer());
-
-            Collections.sort(servers, (a, b) -> a.onlinePlayers().size() - b.onlinePlayers().size());
-
-            info = plugin.getProxy().getServerInfo(servers.get(0).name());
+            if (server != null) {
+                info = plugin.getProxy().getServerInfo(server);
+            }
         }
 
         if (info == null) {
@@ -60,6 +60,13 @@ public final class MineCloudCLI {
 
         MineCloud.instance().initiateMongo(mongo);
 
+        // redis is only used to tell other processes about pushed changes
+        if (properties.containsKey("redis-host")) {
+            MineCloud.instance().initiateRedis(new Credentials(new String[] {properties.getProperty("redis-host")},
+                    "",
+                    properties.getProperty("redis-password", "").toCharArray()));
+        }
+
         new MineCloudCLI();
     }
 }
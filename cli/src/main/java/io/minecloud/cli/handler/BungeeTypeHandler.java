@@ -144,6 +144,7 @@ public class BungeeTypeHandler extends AbstractHandler {
         MineCloud.instance().mongo()
                 .repositoryBy(BungeeType.class)
                 .save(type);
+        MineCloud.instance().configChanged(BungeeType.class, type.name());
         return "Successfully pushed modifications to database!";
     }
 
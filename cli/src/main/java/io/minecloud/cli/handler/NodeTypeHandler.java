@@ -87,6 +87,7 @@ public class NodeTypeHandler extends AbstractHandler {
         MineCloud.instance().mongo()
                 .repositoryBy(NodeType.class)
                 .save(type);
+        MineCloud.instance().configChanged(NodeType.class, type.name());
         return "Successfully pushed modifications to database!";
     }
 
@@ -151,6 +151,7 @@ public class PluginTypeHandler extends AbstractHandler {
         MineCloud.instance().mongo()
                 .repositoryBy(PluginType.class)
                 .save(type);
+        MineCloud.instance().configChanged(PluginType.class, type.name());
         return "Successfully pushed modifications to database!";
     }
 
@@ -207,6 +207,7 @@ public class ServerTypeHandler extends AbstractHandler {
         MineCloud.instance().mongo()
                 .repositoryBy(ServerType.class)
                 .save(type);
+        MineCloud.instance().configChanged(ServerType.class, type.name());
         return "Successfully pushed modifications to database!";
     }
 
@@ -18,13 +18,15 @@ package io.minecloud.controller;
 import io.minecloud.MineCloud;
 import io.minecloud.db.Credentials;
 import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.redis.RedisDatabase;
-import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.BungeeRepository;
 import io.minecloud.models.bungee.type.BungeeType;
+import io.minecloud.models.network.ClusterState;
 import io.minecloud.models.network.Network;
 import io.minecloud.models.nodes.Node;
+import io.minecloud.models.server.PlayerCount;
 import io.minecloud.models.server.Server;
 import io.minecloud.models.server.ServerRepository;
 import io.minecloud.models.server.type.ServerType;
@@ -33,13 +35,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 
 public class Controller {
     private static Controller instance;
 
     private final List<String> nodesUsed = new ArrayList<>();
+    // deploy requests per network and server type which have not been answered yet
+    private final Map<String, Integer> deploying = new ConcurrentHashMap<>();
     private final RedisDatabase redis;
     private final MongoDatabase mongo;
 
@@ -49,71 +55,78 @@ public class Controller {
         this.redis = MineCloud.instance().redis();
         this.mongo = MineCloud.instance().mongo();
 
-        redis.addChannel(SimpleRedisChannel.create("bungee-create", redis));
-        redis.addChannel(SimpleRedisChannel.create("server-create", redis));
-
         while (!Thread.currentThread().isInterrupted()) {
-            this.redis.connected(); //Checks for Redis death, if it's dead it will reconnect.
-
-            nodesUsed.clear();
-
-            mongo.repositoryBy(Network.class).models()
-                    .forEach((network) -> {
-                        network.bungeeMetadata().forEach((type, amount) -> {
-                            int difference = amount - network.bungeesOnline(type);
-
-                            if (difference > 0) {
-                                IntStream.range(0, difference)
-                                        .forEach((i) -> deployBungee(network, type));
-                            }
+            try (MongoSession session = mongo.openSession()) {
+                nodesUsed.clear();
+
+                ServerRepository serverRepository = mongo.repositoryBy(Server.class);
+
+                // servers which started but never got a port assigned are dead
+                session.delete(serverRepository.createQuery()
+                        .field("ramUsage").notEqual(-1)
+                        .field("port").equal(-1));
+                session.flush(); // the cluster state must not count them
+
+                ClusterState state = ClusterState.load();
+
+                mongo.repositoryBy(Network.class).models()
+                        .forEach((network) -> {
+                            network.bungeeMetadata().forEach((type, amount) -> {
+                                int difference = amount - state.bungeesOnline(network, type);
+
+                                if (difference > 0) {
+                                    IntStream.range(0, difference)
+                                            .forEach((i) -> deployBungee(network, type));
+                                }
+                            });
+
+                            network.serverMetadata().forEach((metadata) -> {
+                                PlayerCount counts = state.servers(network, metadata.type());
+                                String deployKey = network.name() + ":" + metadata.type().name();
+                                // the daemon saves a pending server before answering, so only requests
+                                // outnumbering the pending servers are not part of the counts yet
+                                int unsaved = Math.max(0, deploying.getOrDefault(deployKey, 0) - counts.pending());
+                                int serversOnline = counts.servers() + unsaved;
+
+                                int space = metadata.type().maxPlayers() * serversOnline;
+                                int onlinePlayers = counts.players();
+                                int scaledServers = onlinePlayers > (space * 0.75) ?
+                                        (int) Math.floor(onlinePlayers / (space * 0.75)) + 1 :
+                                        0;
+                                int requiredServers = metadata.minimumAmount() - serversOnline;
+
+                                if (requiredServers < 0) {
+                                    requiredServers = 0;
+                                }
+
+                                if ((scaledServers + requiredServers + serversOnline) > metadata.maximumAmount()) {
+                                    requiredServers = metadata.maximumAmount() - serversOnline;
+                                    scaledServers = 0;
+                                }
+
+                                if (requiredServers > 0 || scaledServers > 0) {
+                                    ServerType type = metadata.type();
+                                    int amount = requiredServers + scaledServers;
+
+                                    deploying.merge(deployKey, amount, Integer::sum);
+                                    network.deployServers(type, amount).forEach((future) -> future.whenComplete((created, ex) -> {
+                                        deploying.computeIfPresent(deployKey, (key, count) -> count > 1 ? count - 1 : null);
+
+                                        if (ex != null) {
+                                            MineCloud.logger().warning("Failed to deploy server type " + type.name() +
+                                                    " on " + network.name() + ": " + ex.getMessage());
+                                            return;
+                                        }
+
+                                        MineCloud.logger().info("Deployed " + created.server() + " on " + created.node() +
+                                                " for " + network.name() + " (port " + created.port() + ")");
+                                    }));
+                                    MineCloud.logger().info("Sent " + amount + " deploy messages for server type " + type.name() +
+                                            " on " + network.name());
+                                }
+                            });
                         });
-
-                        network.servers().stream()
-                                .filter((server) -> server.ramUsage() != -1 && server.port() == -1)
-                                .forEach((server) -> mongo.repositoryBy(Server.class).delete(server));
-
-                        network.serverMetadata().forEach((metadata) -> {
-                            int serversOnline = network.serversOnline(metadata.type());
-
-                            int space = metadata.type().maxPlayers() * serversOnline;
-                            ServerRepository repository = mongo.repositoryBy(Server.class);
-
-                            List<Server> servers = repository.find(repository.createQuery()
-                                    .field("type").equal(metadata.type())
-                                    .field("network").equal(network))
-                                    .asList();
-                            int onlinePlayers = servers.stream()
-                                    .flatMapToInt((s) -> IntStream.of(s.onlinePlayers().size()))
-                                    .sum();
-                            int scaledServers = onlinePlayers > (space * 0.75) ?
-                                    (int) Math.floor(onlinePlayers / (space * 0.75)) + 1 :
-                                    0;
-                            int requiredServers = metadata.minimumAmount() - serversOnline;
-
-                            if (requiredServers < 0) {
-                                requiredServers = 0;
-                            }
-
-                            if ((scaledServers + requiredServers + servers.size()) > metadata.maximumAmount()) {
-                                requiredServers = metadata.maximumAmount() - servers.size();
-                                scaledServers = 0;
-                            }
-
-                            if (requiredServers > 0 || scaledServers > 0) {
-                                IntStream.range(0, requiredServers + scaledServers)
-                                        .forEach((i) -> {
-                                            try {
-                                                Thread.sleep(200L);
-                                            } catch (InterruptedException ignored) {
-                                            }
-
-                                            ServerType type = metadata.type();
-                                            MineCloud.logger().info("Sent deploy message to " + network.deployServer(type).name() +
-                                                    " for server type " + type.name() + " on " + network.name());
-                                        });
-                            }
-                        });
-                    });
+            }
 
             try {
                 Thread.sleep(10000L);
@@ -16,8 +16,12 @@
 package io.minecloud;
 
 import io.minecloud.db.Credentials;
+import io.minecloud.db.mongo.ConfigCache;
 import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.msg.cluster.ConfigChanged;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.BungeeRepository;
 import io.minecloud.models.bungee.type.BungeeType;
@@ -170,6 +174,12 @@ public final class MineCloud {
         mongo.loadRepository(ServerRepository.create(mongo.datastore()), Server.class);
         mongo.loadRepository(PluginTypeRepository.create(mongo.datastore()), PluginType.class);
 
+        mongo.configCache().register(ServerType.class);
+        mongo.configCache().register(BungeeType.class);
+        mongo.configCache().register(NodeType.class);
+        mongo.configCache().register(PluginType.class);
+        listenForConfigChanges();
+
         try {
             Class<?> cls = Class.forName("org.mongodb.morphia.query.QueryValidator");
             Field log = cls.getDeclaredField("LOG");
@@ -190,5 +200,25 @@ public final class MineCloud {
         redis = RedisDatabase.create(credentials);
 
         redis.setup();
+        listenForConfigChanges();
+    }
+
+    /**
+     * Drops the cached copies of a configuration model on every process, call this once
+     * a change to the model has been saved
+     */
+    public void configChanged(Class<? extends MongoEntity> model, String id) {
+        mongo.configCache().invalidate(model);
+
+        if (redis != null) {
+            redis.publish(ConfigCache.CHANNEL, MessageRegistry.encode(
+                    new ConfigChanged(mongo.repositoryBy(model).collectionName(), id)));
+        }
+    }
+
+    private void listenForConfigChanges() {
+        if (mongo != null && redis != null) {
+            mongo.configCache().listen(redis);
+        }
     }
 }
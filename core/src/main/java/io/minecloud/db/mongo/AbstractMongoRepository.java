@@ -18,17 +18,34 @@ package io.minecloud.db.mongo;
 import com.mongodb.*;
 import io.minecloud.db.mongo.model.MongoEntity;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Key;
 import org.mongodb.morphia.dao.BasicDAO;
+import org.mongodb.morphia.query.MorphiaIterator;
+import org.mongodb.morphia.query.Query;
+import org.mongodb.morphia.query.QueryResults;
 
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public abstract class AbstractMongoRepository<T extends MongoEntity> extends BasicDAO<T, String> implements MongoRepository<T> {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
     protected DBCollection collection;
+    private final QueryPlanWatcher planWatcher;
 
     protected AbstractMongoRepository(Class<T> entity, Datastore datastore) {
         super(entity, datastore);
         collection = getCollection();
+        planWatcher = QueryPlanWatcher.create(collection.getName());
     }
 
     @Override
@@ -38,7 +55,137 @@ public abstract class AbstractMongoRepository<T extends MongoEntity> extends Bas
 
     @Override
     public T findFirst(String id) {
-        return findOne("_id", id);
+        MongoSession session = MongoSession.current();
+
+        return session == null ? findOne("_id", id) : session.find(getEntityClass(), id);
+    }
+
+    /*
+     * Writes made while a MongoSession is open on the calling thread are queued on it and
+     * sent when it is flushed, the returned key or write result is then unacknowledged.
+     */
+    @Override
+    public Key<T> save(T entity) {
+        MongoSession session = MongoSession.current();
+
+        if (session == null) {
+            return super.save(entity);
+        }
+
+        session.save(entity);
+        return new Key<>(getEntityClass(), collectionName(), entity.entityId());
+    }
+
+    @Override
+    public WriteResult delete(T entity) {
+        MongoSession session = MongoSession.current();
+
+        if (session == null) {
+            return super.delete(entity);
+        }
+
+        session.delete(entity);
+        return WriteResult.unacknowledged();
+    }
+
+    @Override
+    public WriteResult deleteById(String id) {
+        MongoSession session = MongoSession.current();
+
+        if (session == null) {
+            return super.deleteById(id);
+        }
+
+        session.delete(getEntityClass(), id);
+        return WriteResult.unacknowledged();
+    }
+
+    @Override
+    public WriteResult deleteByQuery(Query<T> query) {
+        MongoSession session = MongoSession.current();
+
+        if (session == null) {
+            return super.deleteByQuery(query);
+        }
+
+        session.delete(query);
+        return WriteResult.unacknowledged();
+    }
+
+    @Override
+    public QueryResults<T> find(Query<T> query) {
+        planWatcher.inspect(query);
+        return super.find(query);
+    }
+
+    @Override
+    public T findOne(Query<T> query) {
+        planWatcher.inspect(query);
+        return super.findOne(query);
+    }
+
+    @Override
+    public T findOne(String key, Object value) {
+        return findOne(createQuery().filter(key, value));
+    }
+
+    @Override
+    public long count(Query<T> query) {
+        planWatcher.inspect(query);
+        return super.count(query);
+    }
+
+    @Override
+    public long count(String key, Object value) {
+        return count(createQuery().filter(key, value));
+    }
+
+    /**
+     * Runs a query and resolves the lazy references of its results in one query per
+     * referenced collection
+     * @return The results with their references loaded
+     */
+    public List<T> findResolved(Query<T> query) {
+        return resolve(find(query).asList());
+    }
+
+    public List<T> resolve(List<T> entities) {
+        MongoSession session = MongoSession.current();
+
+        return resolve(entities, session == null ? IdentityMap.create() : session.identityMap());
+    }
+
+    public List<T> resolve(List<T> entities, IdentityMap identityMap) {
+        return ReferenceLoader.create(getDs(), identityMap).resolve(entities);
+    }
+
+    public Query<T> query(Criteria<T> criteria) {
+        return criteria.applyTo(createQuery());
+    }
+
+    @Override
+    public List<T> findAll(Criteria<T> criteria) {
+        return findResolved(query(criteria));
+    }
+
+    public T findOne(Criteria<T> criteria) {
+        return findOne(query(criteria));
+    }
+
+    public long count(Criteria<T> criteria) {
+        return count(query(criteria));
+    }
+
+    public boolean exists(Criteria<T> criteria) {
+        return exists(query(criteria));
+    }
+
+    @Override
+    public Collection<T> findAll(Predicate<T> predicate) {
+        return resolve(find(createQuery().disableValidation()).asList())
+                .stream()
+                .filter(predicate)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -51,6 +198,137 @@ public abstract class AbstractMongoRepository<T extends MongoEntity> extends Bas
         return find(createQuery().disableValidation()).asList();
     }
 
+    public Stream<T> stream() {
+        return stream(createQuery().disableValidation());
+    }
+
+    public Stream<T> stream(Criteria<T> criteria) {
+        return stream(query(criteria));
+    }
+
+    public Stream<T> stream(Query<T> query) {
+        return stream(query, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Streams the results of a query from a cursor, holding at most one batch of documents
+     * in memory at a time. The stream must be closed to release the cursor if it is not
+     * consumed to the end.
+     * @param fields The fields to load, or none for whole documents; the id is always loaded
+     * @return A lazily fetched stream of the results
+     */
+    public Stream<T> stream(Query<T> query, int batchSize, String... fields) {
+        planWatcher.inspect(query);
+        query.batchSize(batchSize);
+
+        if (fields.length > 0) {
+            query.retrievedFields(true, fields);
+        }
+
+        MorphiaIterator<T, T> iterator = query.fetch();
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    public PartialUpdate<T> update(String id) {
+        return PartialUpdate.create(this, id);
+    }
+
+    public PartialUpdate<T> update(T entity) {
+        return update(entity.entityId());
+    }
+
+    public boolean set(T entity, String field, Object value) {
+        return update(entity).set(field, value).apply();
+    }
+
+    public boolean increment(T entity, String field, Number amount) {
+        return update(entity).increment(field, amount).apply();
+    }
+
+    public boolean push(T entity, String field, Object value) {
+        return update(entity).push(field, value).apply();
+    }
+
+    public boolean pull(T entity, String field, Object value) {
+        return update(entity).pull(field, value).apply();
+    }
+
+    public BulkWrite<T> orderedBulk() {
+        return BulkWrite.create(this, true);
+    }
+
+    public BulkWrite<T> unorderedBulk() {
+        return BulkWrite.create(this, false);
+    }
+
+    public int insertAll(Collection<T> entities) {
+        BulkWrite<T> bulk = unorderedBulk();
+
+        entities.forEach(bulk::insert);
+        return bulk.execute();
+    }
+
+    public int saveAll(Collection<T> entities) {
+        BulkWrite<T> bulk = unorderedBulk();
+
+        entities.forEach(bulk::save);
+        return bulk.execute();
+    }
+
+    public int deleteAll(Collection<T> entities) {
+        BulkWrite<T> bulk = unorderedBulk();
+
+        entities.forEach(bulk::delete);
+        return bulk.execute();
+    }
+
+    public int deleteAllById(Collection<String> ids) {
+        BulkWrite<T> bulk = unorderedBulk();
+
+        ids.forEach(bulk::deleteById);
+        return bulk.execute();
+    }
+
+    DBObject toDocument(T entity) {
+        return getDs().getMapper().toDBObject(entity);
+    }
+
+    /**
+     * Runs an aggregation pipeline against the repository's collection
+     * @return The documents produced by the last stage
+     */
+    public List<DBObject> aggregate(DBObject... stages) {
+        List<DBObject> results = new ArrayList<>();
+        AggregationOptions options = AggregationOptions.builder()
+                .outputMode(AggregationOptions.OutputMode.CURSOR)
+                .build();
+
+        try (Cursor cursor = collection.aggregate(Arrays.asList(stages), options)) {
+            cursor.forEachRemaining(results::add);
+        }
+
+        return results;
+    }
+
+    /**
+     * Resolves the id of a referenced document as returned by an aggregation, which leaves
+     * references as DBRefs
+     */
+    public static String referencedId(Object reference) {
+        if (reference instanceof DBRef) {
+            return String.valueOf(((DBRef) reference).getId());
+        }
+
+        if (reference instanceof DBObject) {
+            return String.valueOf(((DBObject) reference).get("$id"));
+        }
+
+        return reference == null ? null : String.valueOf(reference);
+    }
+
     public Class<T> modelClass() {
         return (Class<T>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
     }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.DBObject;
+import io.minecloud.db.mongo.model.MongoEntity;
+import org.mongodb.morphia.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects inserts, saves, updates and deletes on one repository and sends them to the
+ * server in a single round trip.
+ *
+ * An ordered write stops at the first failing operation and keeps the queued order; an
+ * unordered write lets the server apply operations in any order and carries on past
+ * failures, which is faster when the operations are independent.
+ */
+public final class BulkWrite<T extends MongoEntity> {
+    private final AbstractMongoRepository<T> repository;
+    private final boolean ordered;
+    private final List<Consumer<BulkWriteOperation>> operations = new ArrayList<>();
+
+    private BulkWrite(AbstractMongoRepository<T> repository, boolean ordered) {
+        this.repository = repository;
+        this.ordered = ordered;
+    }
+
+    static <T extends MongoEntity> BulkWrite<T> create(AbstractMongoRepository<T> repository, boolean ordered) {
+        return new BulkWrite<>(repository, ordered);
+    }
+
+    public BulkWrite<T> insert(T entity) {
+        DBObject document = repository.toDocument(entity);
+
+        operations.add((bulk) -> bulk.insert(document));
+        return this;
+    }
+
+    /*
+     * Replaces the whole document, inserting it if it does not exist yet.
+     */
+    public BulkWrite<T> save(T entity) {
+        DBObject document = repository.toDocument(entity);
+
+        operations.add((bulk) -> bulk.find(byId(entity.entityId())).upsert().replaceOne(document));
+        return this;
+    }
+
+    public BulkWrite<T> update(PartialUpdate<T> update) {
+        if (update.size() > 0) {
+            DBObject document = update.document();
+
+            operations.add((bulk) -> bulk.find(byId(update.id())).updateOne(document));
+        }
+
+        return this;
+    }
+
+    public BulkWrite<T> delete(T entity) {
+        return deleteById(entity.entityId());
+    }
+
+    public BulkWrite<T> deleteById(String id) {
+        operations.add((bulk) -> bulk.find(byId(id)).removeOne());
+        return this;
+    }
+
+    /*
+     * Removes every document matching the query.
+     */
+    public BulkWrite<T> delete(Query<T> query) {
+        DBObject filter = query.getQueryObject();
+
+        operations.add((bulk) -> bulk.find(filter).remove());
+        return this;
+    }
+
+    public boolean ordered() {
+        return ordered;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Sends the queued operations and clears them
+     * @return The number of documents inserted, upserted, matched by an update or removed
+     */
+    public int execute() {
+        if (operations.isEmpty()) {
+            return 0;
+        }
+
+        BulkWriteOperation bulk = ordered ?
+                repository.collection().initializeOrderedBulkOperation() :
+                repository.collection().initializeUnorderedBulkOperation();
+
+        operations.forEach((operation) -> operation.accept(bulk));
+        operations.clear();
+
+        BulkWriteResult result = bulk.execute();
+
+        return result.getInsertedCount() + result.getUpserts().size() + result.getMatchedCount() +
+                result.getRemovedCount();
+    }
+
+    private static DBObject byId(String id) {
+        return new BasicDBObject("_id", id);
+    }
+}
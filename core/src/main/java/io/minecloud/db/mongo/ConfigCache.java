@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.model.MongoEntity;
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.msg.cluster.ConfigChanged;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache for configuration models, which only change when pushed from the CLI.
+ *
+ * Each model has a version which any invalidation bumps; entries remember the version they
+ * were loaded under and are reloaded once it moves on, so a load racing an invalidation
+ * can never leave a stale entry behind. Entries are also reloaded after MAX_AGE, which
+ * bounds staleness when an invalidation message is lost, and everything is invalidated
+ * once a lost Redis connection comes back.
+ */
+public final class ConfigCache {
+    public static final String CHANNEL = "config-changed";
+    private static final long MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+
+    private final MongoDatabase database;
+    private final Map<Class<?>, Model> models = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> modelsByCollection = new ConcurrentHashMap<>();
+    private final AtomicBoolean listening = new AtomicBoolean(false);
+
+    private ConfigCache(MongoDatabase database) {
+        this.database = database;
+    }
+
+    static ConfigCache create(MongoDatabase database) {
+        return new ConfigCache(database);
+    }
+
+    /**
+     * Resolves a lazy reference to a cached model through the cache of the running instance,
+     * without resolving the proxy itself
+     * @return The cached model, or the reference as-is if it is not a cacheable proxy
+     */
+    public static <T> T cached(T reference) {
+        MongoDatabase mongo = MineCloud.instance().mongo();
+
+        return mongo == null ? reference : mongo.configCache().resolve(reference);
+    }
+
+    /**
+     * Subscribes to the {@link ConfigChanged} messages of other processes and invalidates every model
+     * once a lost Redis connection comes back, since changes published meanwhile were missed.
+     * Only the first call has an effect.
+     */
+    public void listen(RedisDatabase redis) {
+        if (!listening.compareAndSet(false, true)) {
+            return;
+        }
+
+        redis.addChannel(SimpleRedisChannel.create(CHANNEL, redis)
+                .addCallback((message) -> {
+                    ConfigChanged change = MessageRegistry.decode(null, message, ConfigChanged.class);
+
+                    if (change != null) {
+                        invalidate(change.collection());
+                    }
+                }));
+
+        redis.supervisor().onReconnect(this::invalidateAll);
+    }
+
+    public void register(Class<? extends MongoEntity> model) {
+        models.putIfAbsent(model, new Model());
+        modelsByCollection.put(database.repositoryBy(model).collectionName(), model);
+    }
+
+    public boolean caches(Class<?> model) {
+        return models.containsKey(model);
+    }
+
+    public <T extends MongoEntity> T get(Class<T> model, String id) {
+        Model cache = models.get(model);
+
+        if (cache == null) {
+            return database.repositoryBy(model).findFirst(id);
+        }
+
+        long version = cache.version.get();
+        Entry entry = cache.entries.get(id);
+
+        if (entry != null && entry.version == version
+                && System.currentTimeMillis() - entry.loaded < MAX_AGE) {
+            return model.cast(entry.value);
+        }
+
+        T value = database.repositoryBy(model).findFirst(id);
+
+        if (value != null) {
+            cache.entries.put(id, new Entry(value, version));
+        } else {
+            cache.entries.remove(id);
+        }
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T resolve(T reference) {
+        if (!ProxyHelper.isProxy(reference) || !ProxyHelper.isUnFetched(reference)) {
+            return reference;
+        }
+
+        Key<?> key = ((ProxiedEntityReference) reference).__getKey();
+        Class<?> model = ProxyHelper.getReferentClass(reference);
+
+        if (key == null || !caches(model)) {
+            return reference;
+        }
+
+        Object value = get((Class<? extends MongoEntity>) model, String.valueOf(key.getId()));
+
+        return value == null ? reference : (T) value;
+    }
+
+    public void invalidate(Class<?> model) {
+        Model cache = models.get(model);
+
+        if (cache != null) {
+            cache.version.incrementAndGet();
+            cache.entries.clear();
+        }
+    }
+
+    public void invalidateAll() {
+        models.keySet().forEach(this::invalidate);
+    }
+
+    public void invalidate(String collection) {
+        Class<?> model = modelsByCollection.get(collection);
+
+        if (model != null) {
+            invalidate(model);
+        }
+    }
+
+    public long version(Class<?> model) {
+        Model cache = models.get(model);
+
+        return cache == null ? -1 : cache.version.get();
+    }
+
+    private static final class Model {
+        private final AtomicLong version = new AtomicLong();
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long version;
+        private final long loaded = System.currentTimeMillis();
+
+        private Entry(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
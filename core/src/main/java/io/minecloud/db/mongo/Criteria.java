@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import io.minecloud.db.mongo.model.MongoEntity;
+import org.mongodb.morphia.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A typed set of filters which is translated to a Morphia query, so documents are
+ * matched by Mongo instead of loading a whole collection and filtering it in memory.
+ *
+ * Criteria are immutable; each method returns a new instance with the filter added,
+ * so a base criteria may be shared and refined by several callers.
+ */
+public final class Criteria<T> {
+    private final Class<T> model;
+    private final List<Consumer<Query<T>>> filters;
+
+    private Criteria(Class<T> model, List<Consumer<Query<T>>> filters) {
+        this.model = model;
+        this.filters = filters;
+    }
+
+    public static <T> Criteria<T> create(Class<T> model) {
+        return new Criteria<>(model, new ArrayList<>());
+    }
+
+    public Class<T> model() {
+        return model;
+    }
+
+    public Criteria<T> equal(String field, Object value) {
+        return with((query) -> query.field(field).equal(value));
+    }
+
+    public Criteria<T> notEqual(String field, Object value) {
+        return with((query) -> query.field(field).notEqual(value));
+    }
+
+    public Criteria<T> in(String field, Collection<?> values) {
+        return with((query) -> query.field(field).in(values));
+    }
+
+    public Criteria<T> notIn(String field, Collection<?> values) {
+        return with((query) -> query.field(field).notIn(values));
+    }
+
+    public Criteria<T> greaterThan(String field, Object value) {
+        return with((query) -> query.field(field).greaterThan(value));
+    }
+
+    public Criteria<T> atLeast(String field, Object value) {
+        return with((query) -> query.field(field).greaterThanOrEq(value));
+    }
+
+    public Criteria<T> lessThan(String field, Object value) {
+        return with((query) -> query.field(field).lessThan(value));
+    }
+
+    public Criteria<T> atMost(String field, Object value) {
+        return with((query) -> query.field(field).lessThanOrEq(value));
+    }
+
+    /**
+     * Matches values in the inclusive range [min, max]
+     */
+    public Criteria<T> between(String field, Object min, Object max) {
+        return atLeast(field, min).atMost(field, max);
+    }
+
+    /**
+     * Matches documents whose reference field points at the given entity, compared by
+     * its id rather than by loading the referenced document
+     */
+    public Criteria<T> references(String field, MongoEntity entity) {
+        return with((query) -> query.field(field).equal(entity));
+    }
+
+    /**
+     * Applies the filters to a query of the model
+     * @return The same query, for chaining
+     */
+    public Query<T> applyTo(Query<T> query) {
+        filters.forEach((filter) -> filter.accept(query));
+        return query;
+    }
+
+    private Criteria<T> with(Consumer<Query<T>> filter) {
+        List<Consumer<Query<T>>> next = new ArrayList<>(filters);
+
+        next.add(filter);
+        return new Criteria<>(model, next);
+    }
+}
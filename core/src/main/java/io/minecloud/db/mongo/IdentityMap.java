@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a single instance per document so that every reference to the same id
+ * resolves to the same object within one unit of work. Not thread-safe.
+ */
+public final class IdentityMap {
+    private final Map<Class<?>, Map<String, Object>> entities = new HashMap<>();
+
+    private IdentityMap() {
+    }
+
+    public static IdentityMap create() {
+        return new IdentityMap();
+    }
+
+    public <T> T get(Class<T> model, String id) {
+        Map<String, Object> byId = entities.get(model);
+
+        return byId == null ? null : model.cast(byId.get(id));
+    }
+
+    /**
+     * Registers an instance unless one is already known for its id
+     * @return The instance held by the map for the id
+     */
+    public <T> T put(Class<T> model, String id, T entity) {
+        Object existing = entities.computeIfAbsent(model, (key) -> new HashMap<>()).putIfAbsent(id, entity);
+
+        return existing == null ? entity : model.cast(existing);
+    }
+
+    /**
+     * Registers an instance in place of any instance already known for its id
+     */
+    public <T> void replace(Class<T> model, String id, T entity) {
+        entities.computeIfAbsent(model, (key) -> new HashMap<>()).put(id, entity);
+    }
+
+    public boolean contains(Class<?> model, String id) {
+        Map<String, Object> byId = entities.get(model);
+
+        return byId != null && byId.containsKey(id);
+    }
+
+    public int size() {
+        return entities.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public void clear() {
+        entities.clear();
+    }
+}
@@ -31,6 +31,7 @@ import java.util.logging.Level;
 public class MongoDatabase implements Database {
     private final Map<Class<?>, MongoRepository<?>> repositories = new HashMap<>();
     private final Credentials credentials;
+    private final ConfigCache configCache = ConfigCache.create(this);
     private DB database;
     private Morphia morphia;
     private Datastore datastore;
@@ -49,6 +50,23 @@ public class MongoDatabase implements Database {
 
     public <T> void loadRepository(MongoRepository<T> repository, Class<T> cls) {
         repositories.put(cls, repository);
+        ensureIndexes(cls);
+    }
+
+    /*
+     * Builds the @Indexes declared on a model in the background. Repositories are registered
+     * after setup(), so indexes are ensured per model as each one is loaded.
+     */
+    public <T> void ensureIndexes(Class<T> model) {
+        if (datastore == null) {
+            return;
+        }
+
+        try {
+            datastore.ensureIndexes(model, true);
+        } catch (MongoException ex) {
+            MineCloud.logger().log(Level.WARNING, "Unable to ensure indexes for " + model.getSimpleName(), ex);
+        }
     }
 
     public DB db() {
@@ -63,6 +81,26 @@ public class MongoDatabase implements Database {
         return datastore;
     }
 
+    public ConfigCache configCache() {
+        return configCache;
+    }
+
+    /**
+     * Looks up a configuration model through the cache, falling back to the repository
+     * for models which are not cached
+     */
+    public <T extends MongoEntity> T cached(Class<T> model, String id) {
+        return configCache.get(model, id);
+    }
+
+    /**
+     * Opens a unit of work on the calling thread, to be closed at the end of the tick
+     * @return The opened session
+     */
+    public MongoSession openSession() {
+        return MongoSession.open(this);
+    }
+
     public Credentials credentials() {
         return credentials;
     }
@@ -103,5 +141,7 @@ public class MongoDatabase implements Database {
         database = client.getDB(credentials.database());
         morphia = new Morphia();
         datastore = morphia.createDatastore(client, credentials.database());
+
+        repositories.keySet().forEach(this::ensureIndexes);
     }
 }
@@ -38,10 +38,20 @@ public interface MongoRepository<T> {
 
     public T findFirst(String id);
 
+    /**
+     * Filters every model of the repository in memory; prefer {@link #findAll(Criteria)},
+     * which only loads the matching documents
+     */
     public default Collection<T> findAll(Predicate<T> predicate) {
         return models().stream().filter(predicate).collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves the models matching the criteria, filtered by the database
+     * @return The matching models
+     */
+    public Collection<T> findAll(Criteria<T> criteria);
+
     /**
      * Retrieves all models or entries in the repository
      * @return All models in the repository
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import com.mongodb.MongoException;
+import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.model.MongoEntity;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReferenceList;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+import org.mongodb.morphia.query.Query;
+
+import java.util.*;
+import java.util.logging.Level;
+
+/**
+ * A unit of work bound to the thread which opened it, usually for one controller tick
+ * or one daemon loop iteration.
+ *
+ * While it is open, lookups by id and lazy references go through its identity map so
+ * each document is read at most once. Writes queued on it are held back and sent as one
+ * bulk write per collection when it is flushed or closed.
+ *
+ * Saved instances replace the mapped ones, so lookups by id return them right away. Queries
+ * are not answered from the queued writes though: until the session is flushed they read
+ * what Mongo holds, so a query may miss saved documents or return deleted ones.
+ */
+public final class MongoSession implements AutoCloseable {
+    private static final ThreadLocal<MongoSession> CURRENT = new ThreadLocal<>();
+
+    private final MongoDatabase database;
+    private final MongoSession parent;
+    private final IdentityMap identityMap = IdentityMap.create();
+    private final Map<Class<?>, BulkWrite<?>> writes = new LinkedHashMap<>();
+    private boolean closed;
+
+    private MongoSession(MongoDatabase database, MongoSession parent) {
+        this.database = database;
+        this.parent = parent;
+    }
+
+    static MongoSession open(MongoDatabase database) {
+        MongoSession session = new MongoSession(database, CURRENT.get());
+
+        CURRENT.set(session);
+        return session;
+    }
+
+    /**
+     * @return The session open on the calling thread, or null if there is none
+     */
+    public static MongoSession current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Resolves a lazy reference through the identity map of the current session
+     * @return The session's instance of the referent, or the reference as-is outside of a session
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T attached(T reference) {
+        MongoSession session = current();
+
+        if (session == null || !ProxyHelper.isProxy(reference) || !ProxyHelper.isUnFetched(reference)) {
+            return reference;
+        }
+
+        if (reference instanceof ProxiedEntityReferenceList) {
+            return (T) session.attachAll((List<?>) reference);
+        }
+
+        Key<?> key = ((ProxiedEntityReference) reference).__getKey();
+        Class<?> model = ProxyHelper.getReferentClass(reference);
+
+        if (key == null || !MongoEntity.class.isAssignableFrom(model)) {
+            return reference;
+        }
+
+        Object value = session.find((Class<? extends MongoEntity>) model, String.valueOf(key.getId()));
+
+        return value == null ? reference : (T) value;
+    }
+
+    public IdentityMap identityMap() {
+        return identityMap;
+    }
+
+    public <T extends MongoEntity> T find(Class<T> model, String id) {
+        T value = identityMap.get(model, id);
+
+        if (value != null || id == null) {
+            return value;
+        }
+
+        value = database.repositoryBy(model).findOne("_id", id);
+        return value == null ? null : identityMap.put(model, id, value);
+    }
+
+    /**
+     * Resolves the lazy references of a result list against this session's identity map
+     * @return The same list, for chaining
+     */
+    public <T> List<T> resolve(List<T> entities) {
+        return ReferenceLoader.create((DatastoreImpl) database.datastore(), identityMap).resolve(entities);
+    }
+
+    public <T extends MongoEntity> void save(T entity) {
+        Class<T> model = modelOf(entity);
+
+        identityMap.replace(model, entity.entityId(), entity);
+        writes(model).save(entity);
+    }
+
+    public <T extends MongoEntity> void update(PartialUpdate<T> update) {
+        writes(update.repository().getEntityClass()).update(update);
+    }
+
+    public <T extends MongoEntity> void delete(T entity) {
+        writes(modelOf(entity)).delete(entity);
+    }
+
+    public void delete(Class<? extends MongoEntity> model, String id) {
+        writes(model).deleteById(id);
+    }
+
+    public <T extends MongoEntity> void delete(Query<T> query) {
+        writes(query.getEntityClass()).delete(query);
+    }
+
+    public int pendingWrites() {
+        return writes.values().stream().mapToInt(BulkWrite::size).sum();
+    }
+
+    /*
+     * Sends every queued write, one ordered bulk write per collection. A failing collection
+     * is logged and does not stop the others.
+     */
+    public void flush() {
+        writes.forEach((model, bulk) -> {
+            int size = bulk.size();
+
+            try {
+                bulk.execute();
+            } catch (MongoException ex) {
+                MineCloud.logger().log(Level.SEVERE, "Failed to flush " + size + " writes of " +
+                        model.getSimpleName(), ex);
+            }
+        });
+
+        writes.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            flush();
+        } finally {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object> attachAll(List<?> references) {
+        Class<Object> model = (Class<Object>) ProxyHelper.getReferentClass(references);
+        List<String> ids = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+
+        for (Key<?> key : ((ProxiedEntityReferenceList) references).__getKeysAsList()) {
+            String id = String.valueOf(key.getId());
+
+            ids.add(id);
+
+            if (!identityMap.contains(model, id)) {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Object value : database.datastore().createQuery(model).field("_id").in(missing).asList()) {
+                identityMap.put(model, ((MongoEntity) value).entityId(), value);
+            }
+        }
+
+        for (String id : ids) {
+            Object value = identityMap.get(model, id);
+
+            if (value == null) {
+                return (List<Object>) references;
+            }
+
+            values.add(value);
+        }
+
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends MongoEntity> BulkWrite<T> writes(Class<T> model) {
+        if (closed) {
+            throw new IllegalStateException("Session is already closed");
+        }
+
+        return (BulkWrite<T>) writes.computeIfAbsent(model,
+                (key) -> database.<T, AbstractMongoRepository<T>>repositoryBy(model).orderedBulk());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends MongoEntity> Class<T> modelOf(T entity) {
+        return (Class<T>) entity.getClass();
+    }
+}
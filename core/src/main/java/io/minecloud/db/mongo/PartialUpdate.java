@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import com.mongodb.DBObject;
+import io.minecloud.db.mongo.model.MongoEntity;
+import org.mongodb.morphia.query.UpdateOperations;
+import org.mongodb.morphia.query.UpdateOpsImpl;
+
+/**
+ * A set of field operators applied to a single document, so writers only touch the
+ * fields they own instead of racing each other with whole-document saves.
+ */
+public final class PartialUpdate<T extends MongoEntity> {
+    private final AbstractMongoRepository<T> repository;
+    private final String id;
+    private final UpdateOperations<T> operations;
+    private int size;
+
+    private PartialUpdate(AbstractMongoRepository<T> repository, String id) {
+        this.repository = repository;
+        this.id = id;
+        this.operations = repository.createUpdateOperations();
+    }
+
+    static <T extends MongoEntity> PartialUpdate<T> create(AbstractMongoRepository<T> repository, String id) {
+        return new PartialUpdate<>(repository, id);
+    }
+
+    public PartialUpdate<T> set(String field, Object value) {
+        if (value == null) {
+            return unset(field);
+        }
+
+        operations.set(field, value);
+        size++;
+        return this;
+    }
+
+    public PartialUpdate<T> unset(String field) {
+        operations.unset(field);
+        size++;
+        return this;
+    }
+
+    public PartialUpdate<T> increment(String field, Number amount) {
+        operations.inc(field, amount);
+        size++;
+        return this;
+    }
+
+    public PartialUpdate<T> push(String field, Object value) {
+        operations.add(field, value, true);
+        size++;
+        return this;
+    }
+
+    /*
+     * Removes every element equal to value; value may also be a DBObject matching
+     * embedded documents by a subset of their fields.
+     */
+    public PartialUpdate<T> pull(String field, Object value) {
+        operations.removeAll(field, value);
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Applies the queued operators atomically to the document.
+     * @return Whether a document with the id existed
+     */
+    public boolean apply() {
+        if (size == 0) {
+            return repository.exists("_id", id);
+        }
+
+        return repository.update(repository.createQuery().field("_id").equal(id), operations)
+                .getUpdatedExisting();
+    }
+
+    /*
+     * Defers the update to the end of the current session, where it is sent together with
+     * the session's other writes; applies it immediately outside of a session.
+     */
+    public void queue() {
+        MongoSession session = MongoSession.current();
+
+        if (session == null) {
+            apply();
+        } else {
+            session.update(this);
+        }
+    }
+
+    AbstractMongoRepository<T> repository() {
+        return repository;
+    }
+
+    String id() {
+        return id;
+    }
+
+    DBObject document() {
+        return ((UpdateOpsImpl<T>) operations).getOps();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import com.mongodb.BasicDBList;
+import com.mongodb.DBObject;
+import io.minecloud.MineCloud;
+import org.mongodb.morphia.query.Query;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Explains each distinct query shape once per repository and warns when the winning
+ * plan is a collection scan, so a missing index shows up in the logs instead of as load.
+ */
+final class QueryPlanWatcher {
+    private final String collection;
+    private final Set<String> seenShapes = ConcurrentHashMap.newKeySet();
+
+    private QueryPlanWatcher(String collection) {
+        this.collection = collection;
+    }
+
+    static QueryPlanWatcher create(String collection) {
+        return new QueryPlanWatcher(collection);
+    }
+
+    void inspect(Query<?> query) {
+        DBObject filter = query.getQueryObject();
+
+        if (filter == null || filter.keySet().isEmpty()) {
+            return; // unfiltered queries scan on purpose
+        }
+
+        String shape = shapeOf(filter);
+
+        if (!seenShapes.add(shape)) {
+            return;
+        }
+
+        try {
+            if (scans(query.explain())) {
+                MineCloud.logger().warning("Query " + shape + " on " + collection
+                        + " is running as a full collection scan, consider indexing it");
+            }
+        } catch (Exception ex) {
+            MineCloud.logger().log(Level.FINE, "Unable to explain query " + shape + " on " + collection, ex);
+        }
+    }
+
+    private static String shapeOf(DBObject filter) {
+        Set<String> fields = new TreeSet<>();
+
+        collectFields("", filter, fields);
+        return fields.toString();
+    }
+
+    private static void collectFields(String prefix, DBObject object, Set<String> fields) {
+        object.keySet().forEach((key) -> {
+            Object value = object.get(key);
+
+            if (key.startsWith("$")) {
+                // operators keep the field they apply to, logical ones nest further filters
+                if (!prefix.isEmpty()) {
+                    fields.add(prefix);
+                }
+
+                if (value instanceof BasicDBList) {
+                    ((BasicDBList) value).stream()
+                            .filter((clause) -> clause instanceof DBObject)
+                            .forEach((clause) -> collectFields(prefix, (DBObject) clause, fields));
+                } else if (value instanceof DBObject) {
+                    collectFields(prefix, (DBObject) value, fields);
+                }
+
+                return;
+            }
+
+            String field = prefix.isEmpty() ? key : prefix + "." + key;
+
+            if (value instanceof DBObject && ((DBObject) value).keySet().stream().allMatch((k) -> k.startsWith("$"))) {
+                collectFields(field, (DBObject) value, fields);
+            } else {
+                fields.add(field);
+            }
+        });
+    }
+
+    // 3.0+ reports a COLLSCAN stage somewhere in the winning plan, 2.x a BasicCursor
+    private static boolean scans(Object plan) {
+        if (!(plan instanceof Map)) {
+            return false;
+        }
+
+        Map<?, ?> map = (Map<?, ?>) plan;
+
+        if (map.containsKey("cursor")) {
+            return "BasicCursor".equals(map.get("cursor"));
+        }
+
+        if (map.containsKey("queryPlanner")) {
+            return scans(((Map<?, ?>) map.get("queryPlanner")).get("winningPlan"));
+        }
+
+        if ("COLLSCAN".equals(map.get("stage"))) {
+            return true;
+        }
+
+        Object inputs = map.get("inputStages");
+
+        if (inputs instanceof Collection && ((Collection<?>) inputs).stream().anyMatch(QueryPlanWatcher::scans)) {
+            return true;
+        }
+
+        return scans(map.get("inputStage"));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.model.MongoEntity;
+import org.mongodb.morphia.DatastoreImpl;
+import org.mongodb.morphia.Key;
+import org.mongodb.morphia.annotations.Reference;
+import org.mongodb.morphia.mapping.MappedField;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReference;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxiedEntityReferenceList;
+import org.mongodb.morphia.mapping.lazy.proxy.ProxyHelper;
+
+import java.util.*;
+
+/**
+ * Resolves the lazy references of a result list in batches: the ids referenced by
+ * every entity are collected first, then each target collection is loaded with a
+ * single $in query (or through the config cache for cached models) and the proxies
+ * are swapped for the loaded instances.
+ *
+ * References which cannot be found are left as proxies, so they behave exactly as
+ * they did before resolution.
+ */
+public final class ReferenceLoader {
+    private final DatastoreImpl datastore;
+    private final IdentityMap identityMap;
+
+    private ReferenceLoader(DatastoreImpl datastore, IdentityMap identityMap) {
+        this.datastore = datastore;
+        this.identityMap = identityMap;
+    }
+
+    public static ReferenceLoader create(DatastoreImpl datastore, IdentityMap identityMap) {
+        return new ReferenceLoader(datastore, identityMap);
+    }
+
+    public static ReferenceLoader create(DatastoreImpl datastore) {
+        return create(datastore, IdentityMap.create());
+    }
+
+    public IdentityMap identityMap() {
+        return identityMap;
+    }
+
+    /**
+     * Resolves the lazy references of every entity in place
+     * @return The same list, for chaining
+     */
+    public <T> List<T> resolve(List<T> entities) {
+        List<Pending> pending = new ArrayList<>();
+        Map<Class<?>, Set<String>> wanted = new HashMap<>();
+
+        for (T entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+
+            for (MappedField field : datastore.getMapper().getMappedClass(entity.getClass())
+                    .getFieldsAnnotatedWith(Reference.class)) {
+                Object value = field.getFieldValue(entity);
+
+                if (value == null || !ProxyHelper.isProxy(value) || !ProxyHelper.isUnFetched(value)) {
+                    continue;
+                }
+
+                List<? extends Key<?>> keys;
+                Class<?> model;
+
+                if (value instanceof ProxiedEntityReferenceList) {
+                    keys = ((ProxiedEntityReferenceList) value).__getKeysAsList();
+                    model = field.getSubClass();
+                } else if (value instanceof ProxiedEntityReference) {
+                    Key<?> key = ((ProxiedEntityReference) value).__getKey();
+
+                    if (key == null) {
+                        continue;
+                    }
+
+                    keys = Collections.singletonList(key);
+                    model = ProxyHelper.getReferentClass(value);
+                } else {
+                    continue;
+                }
+
+                List<String> ids = new ArrayList<>(keys.size());
+
+                for (Key<?> key : keys) {
+                    ids.add(String.valueOf(key.getId()));
+                }
+
+                wanted.computeIfAbsent(model, (cls) -> new LinkedHashSet<>()).addAll(ids);
+                pending.add(new Pending(entity, field, model, ids, value instanceof ProxiedEntityReferenceList));
+            }
+        }
+
+        wanted.forEach(this::load);
+        pending.forEach(this::apply);
+
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(Class<?> model, Set<String> ids) {
+        List<String> missing = new ArrayList<>();
+
+        for (String id : ids) {
+            if (!identityMap.contains(model, id)) {
+                missing.add(id);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        MongoDatabase mongo = MineCloud.instance().mongo();
+
+        if (mongo != null && mongo.configCache().caches(model)) {
+            for (String id : missing) {
+                Object value = mongo.configCache().get((Class<? extends MongoEntity>) model, id);
+
+                if (value != null) {
+                    put(model, id, value);
+                }
+            }
+
+            return;
+        }
+
+        for (Object value : datastore.createQuery(model).field("_id").in(missing).asList()) {
+            put(model, ((MongoEntity) value).entityId(), value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void put(Class<T> model, String id, Object value) {
+        identityMap.put(model, id, (T) value);
+    }
+
+    private void apply(Pending pending) {
+        List<Object> values = new ArrayList<>(pending.ids.size());
+
+        for (String id : pending.ids) {
+            Object value = identityMap.get(pending.model, id);
+
+            if (value == null) {
+                return;
+            }
+
+            values.add(value);
+        }
+
+        pending.field.setFieldValue(pending.entity, pending.list ? values : values.get(0));
+    }
+
+    private static final class Pending {
+        private final Object entity;
+        private final MappedField field;
+        private final Class<?> model;
+        private final List<String> ids;
+        private final boolean list;
+
+        private Pending(Object entity, MappedField field, Class<?> model, List<String> ids, boolean list) {
+            this.entity = entity;
+            this.field = field;
+            this.model = model;
+            this.ids = ids;
+            this.list = list;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential, jittered delay between reconnection attempts. A waiting thread can be woken early
+ * once the connection is known to be back.
+ */
+final class Backoff {
+    private final long initial;
+    private final long max;
+    private long current;
+
+    private Backoff(long initial, long max) {
+        this.initial = initial;
+        this.max = max;
+        this.current = initial;
+    }
+
+    static Backoff create(long initial, long max) {
+        return new Backoff(initial, max);
+    }
+
+    /**
+     * Waits for the next delay, doubling the one after it
+     */
+    synchronized void await() throws InterruptedException {
+        long delay = current;
+
+        current = Math.min(max, current * 2);
+        wait(delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1));
+    }
+
+    synchronized void reset() {
+        current = initial;
+    }
+
+    /**
+     * Resets the delay and ends the current wait, if any
+     */
+    synchronized void wake() {
+        current = initial;
+        notifyAll();
+    }
+}
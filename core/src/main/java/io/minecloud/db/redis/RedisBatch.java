@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis;
+
+import io.minecloud.db.redis.backend.RedisConnection;
+import io.minecloud.db.redis.backend.RedisWriter;
+import io.minecloud.db.redis.msg.Message;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects publishes and queue pushes and sends them in a single pipelined round trip on {@link #flush()}
+ */
+public final class RedisBatch implements AutoCloseable {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final RedisDatabase database;
+    private final List<Consumer<RedisWriter>> commands = new ArrayList<>();
+
+    private RedisBatch(RedisDatabase database) {
+        this.database = database;
+    }
+
+    static RedisBatch create(RedisDatabase database) {
+        return new RedisBatch(database);
+    }
+
+    public RedisBatch publish(String channel, Message message) {
+        byte[] name = channel.getBytes(UTF_8);
+        byte[] raw = message.raw();
+
+        commands.add((writer) -> {
+            writer.publish(name, raw);
+            database.metrics().channel(channel).recordOut(raw.length);
+        });
+        return this;
+    }
+
+    public RedisBatch push(RedisQueue queue, Message message) {
+        commands.add((writer) -> queue.push(writer, message));
+        return this;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Sends every collected command and waits for their replies
+     */
+    public synchronized void flush() {
+        if (commands.isEmpty()) {
+            return;
+        }
+
+        try (RedisConnection connection = database.connection()) {
+            connection.pipelined((writer) -> commands.forEach((command) -> command.accept(writer)));
+        } finally {
+            commands.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
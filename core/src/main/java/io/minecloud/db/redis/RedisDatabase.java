@@ -18,22 +18,44 @@ package io.minecloud.db.redis;
 import io.minecloud.MineCloud;
 import io.minecloud.db.Credentials;
 import io.minecloud.db.Database;
+import io.minecloud.db.redis.backend.JedisBackend;
+import io.minecloud.db.redis.backend.RedisBackend;
+import io.minecloud.db.redis.backend.RedisConnection;
+import io.minecloud.db.redis.msg.Message;
+import io.minecloud.db.redis.pubsub.ChannelDispatcher;
+import io.minecloud.db.redis.pubsub.PubSubMetrics;
 import io.minecloud.db.redis.pubsub.RedisChannel;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
+import io.minecloud.db.redis.rpc.RedisRpc;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPoolConfig;
-import redis.clients.jedis.exceptions.JedisConnectionException;
 
-import java.util.*;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 public final class RedisDatabase implements Database {
-    private final Map<String, RedisChannel> channels = new HashMap<>();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, RedisChannel> channels = new ConcurrentHashMap<>();
+    private final PubSubMetrics metrics;
     private final Credentials credentials;
-    private JedisPool pool;
+    private final RedisSubscriber subscriber;
+    private final ChannelDispatcher dispatcher;
+    private final RedisRpc rpc;
+    private final RedisSupervisor supervisor;
+    private final Set<Backoff> backoffs = new CopyOnWriteArraySet<>();
+    private volatile RedisBackend backend;
 
     private RedisDatabase(Credentials credentials) {
         this.credentials = credentials;
+        this.subscriber = RedisSubscriber.create(this);
+        this.dispatcher = ChannelDispatcher.create();
+        this.metrics = PubSubMetrics.create(dispatcher);
+        this.rpc = RedisRpc.create(this);
+        this.supervisor = RedisSupervisor.create(this);
     }
 
     public static RedisDatabase create(Credentials credentials) {
@@ -42,31 +64,23 @@ public final class RedisDatabase implements Database {
 
     @Override
     public void setup() {
-        JedisPoolConfig config = new JedisPoolConfig();
-
-        config.setMaxTotal(20);
-        config.setMinIdle(5);
-        config.setMaxIdle(10);
-        config.setMaxWaitMillis(200L);
-        config.setBlockWhenExhausted(false);
-
-        String host = credentials.hosts()[0];
-        int port = 6379;
-
-        if (host.split(":").length == 2) {
-            try {
-                port = Integer.parseInt(host.split(":")[1]);
-            } catch (NumberFormatException ignored) {
-                MineCloud.logger().warning("Host " + host + " has an invalid port!");
-            }
+        if (backend != null) {
+            backend.close();
         }
 
-        pool = credentials.password() != null && credentials.password().length > 0 ? new JedisPool(config, host, port, 1000, new String(credentials.password())) :
-                new JedisPool(config, host, port, 1000);
+        backend = RedisBackend.create(credentials);
+        subscriber.start();
+        supervisor.start();
     }
 
     public void addChannel(RedisChannel channel) {
         channels.put(channel.channel(), channel);
+        subscriber.register(channel);
+    }
+
+    public void removeChannel(String name) {
+        channels.remove(name);
+        subscriber.unregister(name);
     }
 
     public RedisChannel channelBy(String name) {
@@ -77,24 +91,124 @@ public final class RedisDatabase implements Database {
         return channels.get(name);
     }
 
+    /**
+     * Publishes a message without registering (and so subscribing to) the channel locally
+     */
+    public void publish(String channel, Message message) {
+        byte[] raw = message.raw();
+
+        try (RedisConnection connection = connection()) {
+            connection.publish(channel.getBytes(UTF_8), raw);
+        }
+
+        metrics.channel(channel).recordOut(raw.length);
+    }
+
+    /**
+     * Publishes all messages to the channel in a single pipelined round trip
+     */
+    public void publishAll(String channel, List<Message> messages) {
+        try (RedisBatch batch = batch()) {
+            messages.forEach((message) -> batch.publish(channel, message));
+        }
+    }
+
+    /**
+     * @return A new batch, which sends its commands once flushed or closed
+     */
+    public RedisBatch batch() {
+        return RedisBatch.create(this);
+    }
+
+    /**
+     * Replaces the connection pool with a new one, connections borrowed from the old pool are closed
+     * as they are returned
+     */
+    void resetPool() {
+        backend.reset();
+    }
+
+    /**
+     * Creates a backoff which is woken up by the supervisor once a lost connection has been recovered
+     */
+    Backoff createBackoff() {
+        Backoff backoff = Backoff.create(500L, 30000L);
+
+        backoffs.add(backoff);
+        return backoff;
+    }
+
+    void releaseBackoff(Backoff backoff) {
+        backoffs.remove(backoff);
+    }
+
+    void wakeBackoffs() {
+        backoffs.forEach(Backoff::wake);
+    }
+
+    /**
+     * @return A pooled connection, which must be closed to return it to the pool
+     */
+    public RedisConnection connection() {
+        return backend.connection();
+    }
+
+    /**
+     * @return A pooled Jedis resource, only available when talking to a Redis server
+     * @deprecated Use {@link #connection()}, which works with every backend
+     */
+    @Deprecated
     public Jedis grabResource() {
-        return pool.getResource();
+        if (!(backend instanceof JedisBackend)) {
+            throw new UnsupportedOperationException("Jedis resources are not available with the "
+                    + backend.getClass().getSimpleName());
+        }
+
+        return ((JedisBackend) backend).resource();
+    }
+
+    /**
+     * Opens a connection outside of the pool, used for long-lived blocking commands
+     *
+     * @param timeout Socket timeout in milliseconds, 0 to block indefinitely
+     * @return A new, authenticated connection which the caller is responsible for closing
+     */
+    public RedisConnection createConnection(int timeout) {
+        return backend.dedicatedConnection(timeout);
+    }
+
+    public RedisBackend backend() {
+        return backend;
+    }
+
+    public RedisSubscriber subscriber() {
+        return subscriber;
+    }
+
+    public ChannelDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    public PubSubMetrics metrics() {
+        return metrics;
+    }
+
+    public RedisSupervisor supervisor() {
+        return supervisor;
+    }
+
+    public RedisRpc rpc() {
+        return rpc;
     }
 
     public Credentials credentials() {
         return credentials;
     }
 
+    /**
+     * @return Whether the last health check of the {@link RedisSupervisor} succeeded
+     */
     public boolean connected() {
-        boolean connection;
-        try (Jedis jedis = grabResource()) {
-            return true;
-        } catch (JedisConnectionException e) {
-            MineCloud.logger().warning("Redis connection had died, reconnecting.");
-            connection = false;
-            this.setup(); //This should work, right? 
-            // No, it returns the old resource to the new pool
-        }
-        return connection;
+        return supervisor.connected();
     }
 }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.redis.backend.RedisConnection;
+import io.minecloud.db.redis.backend.RedisWriter;
+import io.minecloud.db.redis.msg.Message;
+import io.minecloud.db.redis.pubsub.ChannelCallback;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Durable, at-least-once alternative to a pub/sub channel. Pushed messages wait in a list until a
+ * consumer takes them; a taken message is moved atomically onto the consumer's processing list and
+ * only removed from there once its callback returned, or once the stage returned by an
+ * {@link AsyncCallback} completed. Entries left behind by a consumer which died
+ * are put back with {@link #reclaim(String)}, and entries whose callback keeps failing are moved to
+ * a dead letter list after {@link #MAX_ATTEMPTS} attempts.
+ *
+ * A queue created with a time to live stamps each entry with a deadline, entries still waiting once
+ * it passed are dropped by the consumer instead of being processed late.
+ */
+public final class RedisQueue {
+    public static final int MAX_ATTEMPTS = 5;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int POLL_TIMEOUT = 5;
+    private static final int HEADER_LENGTH = 9;
+
+    private final RedisDatabase database;
+    private final String name;
+    private final byte[] pendingKey;
+    private final byte[] deadKey;
+    private final long ttl;
+
+    private RedisQueue(String name, RedisDatabase database, long ttl) {
+        this.database = database;
+        this.name = name;
+        this.ttl = ttl;
+        this.pendingKey = ("queue:" + name).getBytes(UTF_8);
+        this.deadKey = ("queue:" + name + ":dead").getBytes(UTF_8);
+    }
+
+    public static RedisQueue create(String name, RedisDatabase database) {
+        return new RedisQueue(name, database, 0);
+    }
+
+    /**
+     * @param ttl Time a pushed message may wait before it is taken, after which it is dropped
+     */
+    public static RedisQueue create(String name, RedisDatabase database, long ttl, TimeUnit unit) {
+        return new RedisQueue(name, database, unit.toMillis(ttl));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void push(Message message) {
+        try (RedisConnection connection = database.connection()) {
+            connection.lpush(pendingKey, entry(0, deadline(), message.raw()));
+        }
+    }
+
+    /**
+     * Pushes all messages with a single command, they are taken in the order given
+     */
+    public void pushAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        try (RedisConnection connection = database.connection()) {
+            long deadline = deadline();
+
+            connection.lpush(pendingKey, messages.stream()
+                    .map((message) -> entry(0, deadline, message.raw()))
+                    .toArray(byte[][]::new));
+        }
+    }
+
+    void push(RedisWriter writer, Message message) {
+        writer.lpush(pendingKey, entry(0, deadline(), message.raw()));
+    }
+
+    /**
+     * @return Amount of messages waiting to be taken by a consumer
+     */
+    public long lag() {
+        try (RedisConnection connection = database.connection()) {
+            return connection.llen(pendingKey);
+        }
+    }
+
+    /**
+     * @return Amount of messages taken by the consumer which have not been acknowledged yet
+     */
+    public long inFlight(String consumer) {
+        try (RedisConnection connection = database.connection()) {
+            return connection.llen(processingKey(consumer));
+        }
+    }
+
+    /**
+     * @return Amount of messages given up on after failing {@link #MAX_ATTEMPTS} times
+     */
+    public long deadLetters() {
+        try (RedisConnection connection = database.connection()) {
+            return connection.llen(deadKey);
+        }
+    }
+
+    /**
+     * Puts every unacknowledged message of the consumer back onto the queue
+     *
+     * @return Amount of messages put back
+     */
+    public int reclaim(String consumer) {
+        byte[] processingKey = processingKey(consumer);
+        int reclaimed = 0;
+
+        try (RedisConnection connection = database.connection()) {
+            while (connection.rpoplpush(processingKey, pendingKey) != null) {
+                reclaimed++;
+            }
+        }
+
+        return reclaimed;
+    }
+
+    /**
+     * Starts consuming the queue on a dedicated thread, messages left unacknowledged by a previous
+     * consumer of the same name are reclaimed first. Callbacks are called in order on that thread.
+     */
+    public Consumer consume(String consumer, ChannelCallback callback) {
+        return consumeAsync(consumer, (message) -> {
+            callback.call(message);
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Starts consuming the queue like {@link #consume(String, ChannelCallback)}, but does not wait for a
+     * message to be handled before taking the next one. Each message is acknowledged once the stage
+     * returned for it completes, and retried like a failed callback if it completes exceptionally.
+     */
+    public Consumer consumeAsync(String consumer, AsyncCallback callback) {
+        Consumer instance = new Consumer(consumer, callback);
+        Thread thread = new Thread(instance::run, "MineCloud - Queue Consumer (" + name + ")");
+
+        thread.setDaemon(true);
+        thread.start();
+        return instance;
+    }
+
+    private byte[] processingKey(String consumer) {
+        return ("queue:" + name + ":processing:" + consumer).getBytes(UTF_8);
+    }
+
+    private long deadline() {
+        return ttl == 0 ? 0 : System.currentTimeMillis() + ttl;
+    }
+
+    /*
+     * Entries are the attempt count, the deadline in epoch millis (0 if the entry never expires)
+     * and the message frame.
+     */
+    private static byte[] entry(int attempts, long deadline, byte[] frame) {
+        byte[] entry = new byte[frame.length + HEADER_LENGTH];
+
+        entry[0] = (byte) attempts;
+        ByteBuffer.wrap(entry, 1, 8).putLong(deadline);
+        System.arraycopy(frame, 0, entry, HEADER_LENGTH, frame.length);
+        return entry;
+    }
+
+    public final class Consumer {
+        private final String consumer;
+        private final byte[] processingKey;
+        private final AsyncCallback callback;
+        private final Backoff backoff = database.createBackoff();
+        private volatile boolean running = true;
+
+        private Consumer(String consumer, AsyncCallback callback) {
+            this.consumer = consumer;
+            this.processingKey = processingKey(consumer);
+            this.callback = callback;
+        }
+
+        public String consumer() {
+            return consumer;
+        }
+
+        public void stop() {
+            running = false;
+            database.releaseBackoff(backoff);
+            backoff.wake();
+        }
+
+        private void run() {
+            boolean reclaimed = false;
+
+            while (running) {
+                try (RedisConnection connection = database.createConnection(0)) {
+                    if (!reclaimed) {
+                        int amount = reclaim(consumer);
+
+                        if (amount > 0) {
+                            MineCloud.logger().info("Reclaimed " + amount + " unacknowledged messages on queue " + name);
+                        }
+
+                        reclaimed = true;
+                    }
+
+                    while (running) {
+                        byte[] entry = connection.brpoplpush(pendingKey, processingKey, POLL_TIMEOUT);
+
+                        backoff.reset();
+
+                        if (entry != null) {
+                            process(connection, entry);
+                        }
+                    }
+                } catch (JedisConnectionException ex) {
+                    MineCloud.logger().log(Level.WARNING, "Lost connection while consuming queue " + name
+                            + ", reconnecting", ex);
+                }
+
+                try {
+                    if (running) {
+                        backoff.await();
+                    }
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+            }
+        }
+
+        private void process(RedisConnection connection, byte[] entry) {
+            int attempts = entry[0] + 1;
+            long deadline = ByteBuffer.wrap(entry, 1, 8).getLong();
+
+            if (deadline != 0 && System.currentTimeMillis() > deadline) {
+                connection.lrem(processingKey, 1, entry);
+                MineCloud.logger().info("Dropped expired message from queue " + name);
+                return;
+            }
+
+            CompletionStage<?> stage;
+
+            try {
+                stage = callback.call(Message.frameOf(entry, HEADER_LENGTH, entry.length - HEADER_LENGTH));
+            } catch (Exception ex) {
+                CompletableFuture<?> failed = new CompletableFuture<>();
+
+                failed.completeExceptionally(ex);
+                stage = failed;
+            }
+
+            stage.whenComplete((result, ex) -> settle(entry, attempts, deadline, ex));
+        }
+
+        private void settle(byte[] entry, int attempts, long deadline, Throwable failure) {
+            if (failure != null) {
+                MineCloud.logger().log(Level.WARNING, "Failed to process message from queue " + name
+                        + " (attempt " + attempts + "/" + MAX_ATTEMPTS + ")",
+                        failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure);
+            }
+
+            try (RedisConnection connection = database.connection()) {
+                if (failure == null) {
+                    connection.lrem(processingKey, 1, entry);
+                    return;
+                }
+
+                connection.atomically((writer) -> {
+                    writer.lrem(processingKey, 1, entry);
+
+                    if (attempts < MAX_ATTEMPTS) {
+                        writer.lpush(pendingKey, entry(attempts, deadline, Arrays.copyOfRange(entry, HEADER_LENGTH, entry.length)));
+                    } else {
+                        writer.lpush(deadKey, entry);
+                    }
+                });
+            } catch (JedisException ex) {
+                MineCloud.logger().log(Level.WARNING, "Unable to settle a message of queue " + name
+                        + ", it is redelivered once the consumer restarts", ex);
+            }
+        }
+    }
+
+    /**
+     * Callback of {@link #consumeAsync(String, AsyncCallback)}
+     */
+    public interface AsyncCallback {
+        /**
+         * @return Stage completing once the message has been handled
+         */
+        public CompletionStage<?> call(Message message) throws IOException;
+    }
+}
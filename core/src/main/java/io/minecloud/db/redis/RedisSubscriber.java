@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.redis.backend.RedisConnection;
+import io.minecloud.db.redis.backend.Subscription;
+import io.minecloud.db.redis.pubsub.ChannelPubSub;
+import io.minecloud.db.redis.pubsub.RedisChannel;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Multiplexes every registered {@link RedisChannel} over a single subscriber connection,
+ * channels are subscribed and unsubscribed on the fly and inbound messages are routed
+ * to their channel by name.
+ */
+public final class RedisSubscriber {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] CONTROL_CHANNEL = "minecloud-subscriber".getBytes(UTF_8);
+
+    private final Map<String, RedisChannel> channels = new ConcurrentHashMap<>();
+    private final RedisDatabase database;
+    private final Backoff backoff;
+    private final AtomicLong subscriptions = new AtomicLong();
+    private volatile Subscription subscription;
+    private volatile boolean ready;
+    private Thread thread;
+
+    private RedisSubscriber(RedisDatabase database) {
+        this.database = database;
+        this.backoff = database.createBackoff();
+    }
+
+    static RedisSubscriber create(RedisDatabase database) {
+        return new RedisSubscriber(database);
+    }
+
+    void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this::run, "MineCloud - Subscriber Thread");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void register(RedisChannel channel) {
+        channels.put(channel.channel(), channel);
+
+        if (ready) {
+            send(true, channel.channel().getBytes(UTF_8));
+        }
+    }
+
+    public void unregister(String name) {
+        if (channels.remove(name) != null && ready) {
+            send(false, name.getBytes(UTF_8));
+        }
+    }
+
+    public RedisChannel channelBy(String name) {
+        return channels.get(name);
+    }
+
+    public int channelCount() {
+        return channels.size();
+    }
+
+    /**
+     * @return Whether the subscriber connection is currently up and subscribed
+     */
+    public boolean connected() {
+        return ready;
+    }
+
+    /**
+     * @return Amount of times the subscriber connection was established, including the first time
+     */
+    public long subscriptions() {
+        return subscriptions.get();
+    }
+
+    /**
+     * Called by the pub/sub once the control channel has been subscribed, at which point the
+     * connection is able to take additional subscriptions
+     */
+    public void onReady() {
+        ready = true;
+        subscriptions.incrementAndGet();
+        backoff.reset();
+
+        if (!channels.isEmpty()) {
+            send(true, channels.keySet().stream()
+                    .map((name) -> name.getBytes(UTF_8))
+                    .toArray(byte[][]::new));
+        }
+    }
+
+    private synchronized void send(boolean subscribe, byte[]... names) {
+        Subscription current = subscription;
+
+        if (current == null || !current.isSubscribed()) {
+            return; // channels will be picked up by onReady() when the connection comes back
+        }
+
+        try {
+            if (subscribe) {
+                current.subscribe(names);
+            } else {
+                current.unsubscribe(names);
+            }
+        } catch (JedisException ex) {
+            MineCloud.logger().log(Level.WARNING, "Unable to update subscriptions, will retry on reconnect", ex);
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (RedisConnection connection = database.createConnection(0)) {
+                subscription = connection.subscription(ChannelPubSub.create(this));
+                subscription.listen(CONTROL_CHANNEL);
+            } catch (JedisConnectionException ex) {
+                if (ready) {
+                    MineCloud.logger().log(Level.WARNING, "Subscriber connection was lost, resubscribing to "
+                            + channels.size() + " channels", ex);
+                }
+            } catch (RuntimeException ex) {
+                // protocol errors or a failing pub/sub callback, the connection is unusable either way
+                MineCloud.logger().log(Level.SEVERE, "Subscriber failed unexpectedly, resubscribing to "
+                        + channels.size() + " channels", ex);
+            } finally {
+                ready = false;
+                subscription = null;
+            }
+
+            try {
+                backoff.await();
+            } catch (InterruptedException ignored) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.redis.backend.RedisConnection;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Checks the health of the Redis connection in the background. While Redis is unreachable checks are
+ * retried with an exponential backoff; once it is back the connection pool is replaced, so that no
+ * stale connections are handed out, and every waiting subscriber and queue consumer is woken up to
+ * reconnect straight away. The pub/sub metrics are logged once every report interval.
+ */
+public final class RedisSupervisor {
+    private static final long CHECK_INTERVAL = 5000L;
+    private static final int PROBE_TIMEOUT = 2000;
+    private static final long REPORT_INTERVAL = 60000L;
+
+    private final RedisDatabase database;
+    private final Backoff backoff = Backoff.create(500L, 30000L);
+    private final AtomicLong failedChecks = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+    private volatile State state = State.CONNECTED;
+    private volatile long lastStateChange = System.currentTimeMillis();
+    private long lastReport = System.currentTimeMillis();
+    private RedisConnection probe;
+    private Thread thread;
+
+    private RedisSupervisor(RedisDatabase database) {
+        this.database = database;
+    }
+
+    static RedisSupervisor create(RedisDatabase database) {
+        return new RedisSupervisor(database);
+    }
+
+    void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this::run, "MineCloud - Redis Supervisor");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean connected() {
+        return state == State.CONNECTED;
+    }
+
+    /**
+     * @return Time of the last change of {@link #state()} in milliseconds since the epoch
+     */
+    public long lastStateChange() {
+        return lastStateChange;
+    }
+
+    public long failedChecks() {
+        return failedChecks.get();
+    }
+
+    /**
+     * @return Amount of times the connection has been recovered after being lost
+     */
+    public long reconnects() {
+        return reconnects.get();
+    }
+
+    /**
+     * Registers a listener which is run on the supervisor thread every time a lost connection has been
+     * recovered, for state which may have missed messages published in the meantime
+     */
+    public void onReconnect(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (check()) {
+                    if (state == State.DISCONNECTED) {
+                        recovered();
+                    }
+
+                    backoff.reset();
+                    report();
+                    Thread.sleep(CHECK_INTERVAL);
+                } else {
+                    if (state == State.CONNECTED) {
+                        changeState(State.DISCONNECTED);
+                        MineCloud.logger().warning("Lost connection to Redis, retrying with backoff");
+                    }
+
+                    backoff.await();
+                }
+            } catch (InterruptedException ignored) {
+                return;
+            }
+        }
+    }
+
+    private boolean check() {
+        try {
+            if (probe == null) {
+                probe = database.createConnection(PROBE_TIMEOUT);
+            }
+
+            probe.ping();
+            return true;
+        } catch (JedisException ex) {
+            failedChecks.incrementAndGet();
+
+            if (probe != null) {
+                try {
+                    probe.close();
+                } catch (JedisException ignored) {
+                }
+
+                probe = null;
+            }
+
+            return false;
+        }
+    }
+
+    private void report() {
+        long now = System.currentTimeMillis();
+
+        if (now - lastReport >= REPORT_INTERVAL) {
+            lastReport = now;
+            database.metrics().report();
+        }
+    }
+
+    private void recovered() {
+        long downtime = System.currentTimeMillis() - lastStateChange;
+
+        database.resetPool();
+        reconnects.incrementAndGet();
+        changeState(State.CONNECTED);
+        database.wakeBackoffs();
+
+        MineCloud.logger().info("Reconnected to Redis after " + downtime + "ms");
+
+        reconnectListeners.forEach((listener) -> {
+            try {
+                listener.run();
+            } catch (RuntimeException ex) {
+                MineCloud.logger().log(Level.WARNING, "Reconnect listener failed", ex);
+            }
+        });
+    }
+
+    private void changeState(State state) {
+        this.state = state;
+        this.lastStateChange = System.currentTimeMillis();
+    }
+
+    public enum State {
+        CONNECTED,
+        DISCONNECTED
+    }
+}
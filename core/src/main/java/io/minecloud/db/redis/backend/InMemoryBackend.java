@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+/**
+ * Backend keeping all data in this JVM, for running several MineCloud components in one process
+ * without a Redis server. Backends created with the same name share their data and channels.
+ */
+public final class InMemoryBackend implements RedisBackend {
+    private final InMemoryRedis redis;
+
+    private InMemoryBackend(InMemoryRedis redis) {
+        this.redis = redis;
+    }
+
+    public static InMemoryBackend create(String name) {
+        return new InMemoryBackend(InMemoryRedis.named(name));
+    }
+
+    @Override
+    public RedisConnection connection() {
+        return new InMemoryConnection(redis);
+    }
+
+    @Override
+    public RedisConnection dedicatedConnection(int timeout) {
+        return new InMemoryConnection(redis);
+    }
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+final class InMemoryConnection implements RedisConnection {
+    private final InMemoryRedis redis;
+    private InMemorySubscription subscription;
+
+    InMemoryConnection(InMemoryRedis redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public void ping() {
+    }
+
+    @Override
+    public void publish(byte[] channel, byte[] message) {
+        redis.publish(channel, message);
+    }
+
+    @Override
+    public void lpush(byte[] key, byte[]... values) {
+        redis.lpush(key, values);
+    }
+
+    @Override
+    public void lrem(byte[] key, long count, byte[] value) {
+        redis.lrem(key, count, value);
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        redis.hset(key, field, value);
+    }
+
+    @Override
+    public void hmset(String key, Map<String, String> hash) {
+        synchronized (redis) {
+            hash.forEach((field, value) -> redis.hset(key, field, value));
+        }
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        redis.hdel(key, fields);
+    }
+
+    @Override
+    public void del(String key) {
+        redis.del(key);
+    }
+
+    @Override
+    public void expire(String key, int seconds) {
+        redis.expire(key, seconds);
+    }
+
+    @Override
+    public long llen(byte[] key) {
+        return redis.llen(key);
+    }
+
+    @Override
+    public byte[] rpoplpush(byte[] source, byte[] destination) {
+        return redis.rpoplpush(source, destination);
+    }
+
+    @Override
+    public byte[] brpoplpush(byte[] source, byte[] destination, int timeout) {
+        try {
+            return redis.brpoplpush(source, destination, timeout);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JedisConnectionException("Interrupted while waiting for an element", ex);
+        }
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        return redis.hget(key, field);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return redis.hgetAll(key);
+    }
+
+    @Override
+    public List<Map<String, String>> hgetAll(List<String> keys) {
+        List<Map<String, String>> hashes = new ArrayList<>(keys.size());
+
+        synchronized (redis) {
+            keys.forEach((key) -> hashes.add(redis.hgetAll(key)));
+        }
+
+        return hashes;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return redis.exists(key);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return redis.ttl(key);
+    }
+
+    @Override
+    public void pipelined(Consumer<RedisWriter> commands) {
+        synchronized (redis) {
+            commands.accept(this);
+        }
+    }
+
+    @Override
+    public void atomically(Consumer<RedisWriter> commands) {
+        synchronized (redis) {
+            commands.accept(this);
+        }
+    }
+
+    @Override
+    public Subscription subscription(SubscriptionListener listener) {
+        subscription = new InMemorySubscription(redis, listener);
+        return subscription;
+    }
+
+    @Override
+    public void close() {
+        if (subscription != null && subscription.isSubscribed()) {
+            subscription.unsubscribe();
+        }
+    }
+}
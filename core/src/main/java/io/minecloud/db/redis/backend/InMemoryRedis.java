@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Data and channels shared by every in-memory connection of the same name. All commands run while
+ * holding the monitor of this object, which also makes pipelines and transactions atomic.
+ */
+final class InMemoryRedis {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Map<String, InMemoryRedis> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Long> expiries = new HashMap<>();
+    private final Set<InMemorySubscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    private InMemoryRedis() {
+    }
+
+    static InMemoryRedis named(String name) {
+        return INSTANCES.computeIfAbsent(name, (key) -> new InMemoryRedis());
+    }
+
+    static String key(byte[] key) {
+        return new String(key, UTF_8);
+    }
+
+    void publish(byte[] channel, byte[] message) {
+        String name = key(channel);
+
+        subscriptions.forEach((subscription) -> subscription.deliver(name, channel, message));
+    }
+
+    void addSubscription(InMemorySubscription subscription) {
+        subscriptions.add(subscription);
+    }
+
+    void removeSubscription(InMemorySubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    synchronized void lpush(byte[] key, byte[]... elements) {
+        LinkedList<byte[]> list = list(key(key), true);
+
+        for (byte[] element : elements) {
+            list.addFirst(element);
+        }
+
+        removeIfEmpty(key(key), list);
+        notifyAll();
+    }
+
+    synchronized long llen(byte[] key) {
+        LinkedList<byte[]> list = list(key(key), false);
+
+        return list == null ? 0 : list.size();
+    }
+
+    synchronized void lrem(byte[] key, long count, byte[] value) {
+        String name = key(key);
+        LinkedList<byte[]> list = list(name, false);
+
+        if (list == null) {
+            return;
+        }
+
+        Iterator<byte[]> iterator = count < 0 ? list.descendingIterator() : list.iterator();
+        long removed = 0;
+
+        while (iterator.hasNext() && (count == 0 || removed < Math.abs(count))) {
+            if (Arrays.equals(iterator.next(), value)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        removeIfEmpty(name, list);
+    }
+
+    synchronized byte[] rpoplpush(byte[] source, byte[] destination) {
+        String name = key(source);
+        LinkedList<byte[]> list = list(name, false);
+
+        if (list == null) {
+            return null;
+        }
+
+        byte[] element = list.pollLast();
+
+        removeIfEmpty(name, list);
+
+        if (element == null) {
+            return null;
+        }
+
+        list(key(destination), true).addFirst(element);
+        notifyAll();
+        return element;
+    }
+
+    synchronized byte[] brpoplpush(byte[] source, byte[] destination, int timeout) throws InterruptedException {
+        long deadline = timeout == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeout * 1000L;
+        byte[] element;
+
+        while ((element = rpoplpush(source, destination)) == null) {
+            long remaining = deadline - System.currentTimeMillis();
+
+            if (remaining <= 0) {
+                return null;
+            }
+
+            wait(timeout == 0 ? 0 : remaining);
+        }
+
+        return element;
+    }
+
+    synchronized void hset(String key, String field, String value) {
+        hash(key, true).put(field, value);
+    }
+
+    synchronized String hget(String key, String field) {
+        Map<String, String> hash = hash(key, false);
+
+        return hash == null ? null : hash.get(field);
+    }
+
+    synchronized Map<String, String> hgetAll(String key) {
+        Map<String, String> hash = hash(key, false);
+
+        return hash == null ? Collections.emptyMap() : new HashMap<>(hash);
+    }
+
+    synchronized void hdel(String key, String... fields) {
+        Map<String, String> hash = hash(key, false);
+
+        if (hash == null) {
+            return;
+        }
+
+        for (String field : fields) {
+            hash.remove(field);
+        }
+
+        if (hash.isEmpty()) {
+            del(key);
+        }
+    }
+
+    synchronized void del(String key) {
+        values.remove(key);
+        expiries.remove(key);
+    }
+
+    synchronized boolean exists(String key) {
+        return live(key) != null;
+    }
+
+    synchronized void expire(String key, int seconds) {
+        if (live(key) != null) {
+            expiries.put(key, System.currentTimeMillis() + seconds * 1000L);
+        }
+    }
+
+    synchronized long ttl(String key) {
+        if (live(key) == null) {
+            return -2;
+        }
+
+        Long expiry = expiries.get(key);
+
+        return expiry == null ? -1 : Math.max(0, (expiry - System.currentTimeMillis()) / 1000L);
+    }
+
+    private Object live(String key) {
+        Long expiry = expiries.get(key);
+
+        if (expiry != null && expiry <= System.currentTimeMillis()) {
+            del(key);
+            return null;
+        }
+
+        return values.get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedList<byte[]> list(String key, boolean create) {
+        Object value = live(key);
+
+        if (value == null && create) {
+            value = new LinkedList<byte[]>();
+            values.put(key, value);
+        }
+
+        if (value != null && !(value instanceof LinkedList)) {
+            throw new IllegalStateException("WRONGTYPE " + key + " does not hold a list");
+        }
+
+        return (LinkedList<byte[]>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> hash(String key, boolean create) {
+        Object value = live(key);
+
+        if (value == null && create) {
+            value = new HashMap<String, String>();
+            values.put(key, value);
+        }
+
+        if (value != null && !(value instanceof HashMap)) {
+            throw new IllegalStateException("WRONGTYPE " + key + " does not hold a hash");
+        }
+
+        return (Map<String, String>) value;
+    }
+
+    private void removeIfEmpty(String key, List<?> list) {
+        if (list.isEmpty()) {
+            del(key);
+        }
+    }
+}
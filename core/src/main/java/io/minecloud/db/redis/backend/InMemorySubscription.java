@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Queues subscription changes and messages as events, which are run on the listening thread just
+ * like a Redis connection delivers them
+ */
+final class InMemorySubscription implements Subscription {
+    private final InMemoryRedis redis;
+    private final SubscriptionListener listener;
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<Runnable> events = new LinkedBlockingQueue<>();
+    private volatile boolean listening;
+
+    InMemorySubscription(InMemoryRedis redis, SubscriptionListener listener) {
+        this.redis = redis;
+        this.listener = listener;
+    }
+
+    @Override
+    public void listen(byte[]... names) {
+        listening = true;
+        redis.addSubscription(this);
+        subscribe(names);
+
+        try {
+            while (listening) {
+                events.take().run();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JedisConnectionException("Interrupted while listening", ex);
+        } finally {
+            listening = false;
+            channels.clear();
+            redis.removeSubscription(this);
+        }
+    }
+
+    @Override
+    public void subscribe(byte[]... names) {
+        for (byte[] name : names) {
+            if (channels.add(InMemoryRedis.key(name))) {
+                int subscribed = channels.size();
+
+                events.add(() -> listener.onSubscribe(name, subscribed));
+            }
+        }
+    }
+
+    @Override
+    public void unsubscribe(byte[]... names) {
+        if (names.length == 0) {
+            channels.clear();
+        }
+
+        for (byte[] name : names) {
+            channels.remove(InMemoryRedis.key(name));
+        }
+
+        events.add(() -> {
+            if (channels.isEmpty()) {
+                listening = false;
+            }
+        });
+    }
+
+    @Override
+    public boolean isSubscribed() {
+        return listening;
+    }
+
+    void deliver(String name, byte[] channel, byte[] message) {
+        if (listening && channels.contains(name)) {
+            events.add(() -> listener.onMessage(channel, message));
+        }
+    }
+}
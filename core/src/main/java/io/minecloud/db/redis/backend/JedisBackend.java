@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import io.minecloud.MineCloud;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.logging.Level;
+
+/**
+ * Backend talking to a Redis server through a Jedis connection pool
+ */
+public final class JedisBackend implements RedisBackend {
+    private final String host;
+    private final int port;
+    private final String password;
+    private volatile JedisPool pool;
+
+    private JedisBackend(String host, int port, String password) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+    }
+
+    /**
+     * @param host Host name, optionally followed by a colon and the port
+     * @param password Password, or null or empty if none is required
+     */
+    public static JedisBackend create(String host, char[] password) {
+        int port = 6379;
+
+        if (host.split(":").length == 2) {
+            try {
+                port = Integer.parseInt(host.split(":")[1]);
+                host = host.split(":")[0];
+            } catch (NumberFormatException ignored) {
+                MineCloud.logger().warning("Host " + host + " has an invalid port!");
+            }
+        }
+
+        JedisBackend backend = new JedisBackend(host, port,
+                password == null || password.length == 0 ? null : new String(password));
+
+        backend.reset();
+        return backend;
+    }
+
+    @Override
+    public RedisConnection connection() {
+        return new JedisConnection(resource());
+    }
+
+    /**
+     * @return A raw pooled resource, which must be closed to return it to the pool
+     */
+    public Jedis resource() {
+        return pool.getResource();
+    }
+
+    @Override
+    public RedisConnection dedicatedConnection(int timeout) {
+        Jedis jedis = new Jedis(host, port, timeout);
+
+        if (password != null) {
+            jedis.auth(password);
+        }
+
+        return new JedisConnection(jedis);
+    }
+
+    @Override
+    public synchronized void reset() {
+        JedisPoolConfig config = new JedisPoolConfig();
+
+        config.setMaxTotal(20);
+        config.setMinIdle(5);
+        config.setMaxIdle(10);
+        config.setMaxWaitMillis(200L);
+        config.setBlockWhenExhausted(false);
+
+        JedisPool old = pool;
+
+        pool = password != null ? new JedisPool(config, host, port, 1000, password) :
+                new JedisPool(config, host, port, 1000);
+
+        if (old != null) {
+            try {
+                old.close();
+            } catch (JedisException ex) {
+                MineCloud.logger().log(Level.WARNING, "Unable to close the previous connection pool", ex);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
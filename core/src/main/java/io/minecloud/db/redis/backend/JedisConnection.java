@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.BinaryRedisPipeline;
+import redis.clients.jedis.MultiKeyBinaryRedisPipeline;
+import redis.clients.jedis.RedisPipeline;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+final class JedisConnection implements RedisConnection {
+    private final Jedis jedis;
+
+    JedisConnection(Jedis jedis) {
+        this.jedis = jedis;
+    }
+
+    @Override
+    public void ping() {
+        jedis.ping();
+    }
+
+    @Override
+    public void publish(byte[] channel, byte[] message) {
+        jedis.publish(channel, message);
+    }
+
+    @Override
+    public void lpush(byte[] key, byte[]... values) {
+        jedis.lpush(key, values);
+    }
+
+    @Override
+    public void lrem(byte[] key, long count, byte[] value) {
+        jedis.lrem(key, count, value);
+    }
+
+    @Override
+    public void hset(String key, String field, String value) {
+        jedis.hset(key, field, value);
+    }
+
+    @Override
+    public void hmset(String key, Map<String, String> hash) {
+        jedis.hmset(key, hash);
+    }
+
+    @Override
+    public void hdel(String key, String... fields) {
+        jedis.hdel(key, fields);
+    }
+
+    @Override
+    public void del(String key) {
+        jedis.del(key);
+    }
+
+    @Override
+    public void expire(String key, int seconds) {
+        jedis.expire(key, seconds);
+    }
+
+    @Override
+    public long llen(byte[] key) {
+        return jedis.llen(key);
+    }
+
+    @Override
+    public byte[] rpoplpush(byte[] source, byte[] destination) {
+        return jedis.rpoplpush(source, destination);
+    }
+
+    @Override
+    public byte[] brpoplpush(byte[] source, byte[] destination, int timeout) {
+        return jedis.brpoplpush(source, destination, timeout);
+    }
+
+    @Override
+    public String hget(String key, String field) {
+        return jedis.hget(key, field);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(String key) {
+        return jedis.hgetAll(key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return jedis.exists(key);
+    }
+
+    @Override
+    public long ttl(String key) {
+        return jedis.ttl(key);
+    }
+
+    @Override
+    public List<Map<String, String>> hgetAll(List<String> keys) {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<Map<String, String>>> responses = new ArrayList<>(keys.size());
+
+        keys.forEach((key) -> responses.add(pipeline.hgetAll(key)));
+        pipeline.sync();
+
+        List<Map<String, String>> hashes = new ArrayList<>(responses.size());
+
+        responses.forEach((response) -> hashes.add(response.get()));
+        return hashes;
+    }
+
+    @Override
+    public void pipelined(Consumer<RedisWriter> commands) {
+        Pipeline pipeline = jedis.pipelined();
+
+        commands.accept(new QueuedWriter<>(pipeline));
+        pipeline.sync();
+    }
+
+    @Override
+    public void atomically(Consumer<RedisWriter> commands) {
+        Transaction transaction = jedis.multi();
+
+        commands.accept(new QueuedWriter<>(transaction));
+        transaction.exec();
+    }
+
+    @Override
+    public Subscription subscription(SubscriptionListener listener) {
+        return new JedisSubscription(listener);
+    }
+
+    @Override
+    public void close() {
+        jedis.close();
+    }
+
+    private final class JedisSubscription extends BinaryJedisPubSub implements Subscription {
+        private final SubscriptionListener listener;
+
+        private JedisSubscription(SubscriptionListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void listen(byte[]... channels) {
+            jedis.subscribe(this, channels);
+        }
+
+        @Override
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            listener.onSubscribe(channel, subscribedChannels);
+        }
+
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            listener.onMessage(channel, message);
+        }
+    }
+
+    private static final class QueuedWriter<T extends RedisPipeline & BinaryRedisPipeline & MultiKeyBinaryRedisPipeline>
+            implements RedisWriter {
+        private final T commands;
+
+        private QueuedWriter(T commands) {
+            this.commands = commands;
+        }
+
+        @Override
+        public void publish(byte[] channel, byte[] message) {
+            commands.publish(channel, message);
+        }
+
+        @Override
+        public void lpush(byte[] key, byte[]... values) {
+            commands.lpush(key, values);
+        }
+
+        @Override
+        public void lrem(byte[] key, long count, byte[] value) {
+            commands.lrem(key, count, value);
+        }
+
+        @Override
+        public void hset(String key, String field, String value) {
+            commands.hset(key, field, value);
+        }
+
+        @Override
+        public void hmset(String key, Map<String, String> hash) {
+            commands.hmset(key, hash);
+        }
+
+        @Override
+        public void hdel(String key, String... fields) {
+            commands.hdel(key, fields);
+        }
+
+        @Override
+        public void del(String key) {
+            commands.del(key);
+        }
+
+        @Override
+        public void expire(String key, int seconds) {
+            commands.expire(key, seconds);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import io.minecloud.db.Credentials;
+
+/**
+ * Source of Redis connections. {@link #create(Credentials)} picks the in-memory backend when the
+ * host is given as {@code mem://<name>} or the {@code redis_backend} environment variable is set to
+ * {@code memory}, and a Jedis backed one otherwise.
+ */
+public interface RedisBackend {
+    public static final String MEMORY_SCHEME = "mem://";
+
+    /**
+     * @return A pooled connection, which is returned to the pool once closed
+     */
+    public RedisConnection connection();
+
+    /**
+     * Opens a connection outside of the pool, used for long-lived blocking commands
+     *
+     * @param timeout Socket timeout in milliseconds, 0 to block indefinitely
+     */
+    public RedisConnection dedicatedConnection(int timeout);
+
+    /**
+     * Drops every pooled connection, connections in use are closed as they are returned
+     */
+    public void reset();
+
+    public void close();
+
+    public static RedisBackend create(Credentials credentials) {
+        String host = credentials.hosts()[0];
+
+        if ("memory".equalsIgnoreCase(System.getenv("redis_backend"))) {
+            return InMemoryBackend.create("default");
+        }
+
+        if (host.startsWith(MEMORY_SCHEME)) {
+            return InMemoryBackend.create(host.substring(MEMORY_SCHEME.length()));
+        }
+
+        return JedisBackend.create(host, credentials.password());
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The subset of Redis commands MineCloud relies on. Connections are not thread-safe and must be
+ * closed after use; a lost connection is reported with a
+ * {@link redis.clients.jedis.exceptions.JedisConnectionException} by every backend.
+ */
+public interface RedisConnection extends RedisWriter, AutoCloseable {
+    public void ping();
+
+    public long llen(byte[] key);
+
+    public byte[] rpoplpush(byte[] source, byte[] destination);
+
+    /**
+     * @param timeout Seconds to wait for an element, 0 to wait indefinitely
+     * @return The moved element, or null if the timeout elapsed
+     */
+    public byte[] brpoplpush(byte[] source, byte[] destination, int timeout);
+
+    public String hget(String key, String field);
+
+    public Map<String, String> hgetAll(String key);
+
+    /**
+     * Reads several hashes in a single round trip
+     *
+     * @return The hash of every key in the same order, empty for keys which do not exist
+     */
+    public List<Map<String, String>> hgetAll(List<String> keys);
+
+    public boolean exists(String key);
+
+    /**
+     * @return Seconds until the key expires, -1 if it does not expire and -2 if it does not exist
+     */
+    public long ttl(String key);
+
+    /**
+     * Sends every command written by the consumer in a single round trip
+     */
+    public void pipelined(Consumer<RedisWriter> commands);
+
+    /**
+     * Executes every command written by the consumer atomically
+     */
+    public void atomically(Consumer<RedisWriter> commands);
+
+    /**
+     * Creates a subscription which will use this connection once {@link Subscription#listen(byte[]...)} is called
+     */
+    public Subscription subscription(SubscriptionListener listener);
+
+    @Override
+    public void close();
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import java.util.Map;
+
+/**
+ * Write commands which can be queued in a pipeline or transaction, see
+ * {@link RedisConnection#pipelined(java.util.function.Consumer)}
+ */
+public interface RedisWriter {
+    public void publish(byte[] channel, byte[] message);
+
+    public void lpush(byte[] key, byte[]... values);
+
+    public void lrem(byte[] key, long count, byte[] value);
+
+    public void hset(String key, String field, String value);
+
+    public void hmset(String key, Map<String, String> hash);
+
+    public void hdel(String key, String... fields);
+
+    public void del(String key);
+
+    public void expire(String key, int seconds);
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+/**
+ * A pub/sub subscription bound to a connection. Channels can be added or removed from any thread
+ * while another thread is blocked in {@link #listen(byte[]...)}.
+ */
+public interface Subscription {
+    /**
+     * Subscribes to the channels and delivers messages to the listener on the calling thread until
+     * every channel has been unsubscribed or the connection is lost
+     */
+    public void listen(byte[]... channels);
+
+    public void subscribe(byte[]... channels);
+
+    public void unsubscribe(byte[]... channels);
+
+    public boolean isSubscribed();
+}
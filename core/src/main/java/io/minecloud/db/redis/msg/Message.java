@@ -19,53 +19,133 @@ import io.minecloud.annotation.Immutable;
 import io.minecloud.db.redis.msg.binary.MessageInputStream;
 import org.json.JSONObject;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
+/**
+ * A message frame, consisting of a single type header byte followed by the body. The frame is a view
+ * over its backing array, so received messages are never copied in order to be read.
+ *
+ * Bodies of at least a kilobyte are deflated when the message is
+ * encoded with {@link #raw()}, which is flagged in the type header and undone by {@link #frameOf(byte[])}.
+ * Smaller messages are sent as they are.
+ */
 @Immutable
 public final class Message {
-    private final MessageType type;
-    private final byte[] contents;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
-    private Message(byte[] contents) {
-        this.contents = contents;
-        this.type = MessageType.BINARY;
+    private final MessageType type;
+    private final byte[] frame;
+    private final int offset;
+    private final int length;
+    private volatile byte[] encoded;
+
+    private Message(MessageType type, byte[] frame, int offset, int length) {
+        this.type = type;
+        this.frame = frame;
+        this.offset = offset;
+        this.length = length;
     }
 
-    private Message(JSONObject object) {
-        this.type = MessageType.JSON;
-        this.contents = object.toString().getBytes(Charset.forName("UTF-8"));
-    }
+    private Message(MessageType type, byte[] contents) {
+        this(type, new byte[contents.length + 1], 0, contents.length + 1);
 
-    private Message(String content) {
-        this.type = MessageType.STRING;
-        this.contents = content.getBytes(Charset.forName("UTF-8"));
+        frame[0] = (byte) type.ordinal();
+        System.arraycopy(contents, 0, frame, 1, contents.length);
     }
 
     public static Message messageFrom(byte[] contents) {
-        return new Message(contents);
+        return new Message(MessageType.BINARY, contents);
     }
 
     public static Message messageFrom(JSONObject object) {
-        return new Message(object);
+        return new Message(MessageType.JSON, object.toString().getBytes(UTF_8));
     }
 
     public static Message messageFrom(String content) {
-        return new Message(content);
+        return new Message(MessageType.STRING, content.getBytes(UTF_8));
+    }
+
+    /**
+     * Wraps an encoded frame without copying it, the array must not be modified afterwards
+     *
+     * @param frame Array containing the frame
+     * @param offset Index of the type header
+     * @param length Length of the frame including the header
+     * @return Message viewing the frame
+     */
+    public static Message frameOf(byte[] frame, int offset, int length) {
+        if (length < 1 || offset < 0 || offset + length > frame.length) {
+            throw new IllegalArgumentException("Invalid frame bounds (offset " + offset + ", length " + length + ")");
+        }
+
+        if ((frame[offset] & MessageCompression.FLAG) != 0) {
+            byte[] inflated = MessageCompression.decompress(frame, offset, length);
+
+            return new Message(MessageType.fromId(inflated[0]), inflated, 0, inflated.length);
+        }
+
+        return new Message(MessageType.fromId(frame[offset]), frame, offset, length);
+    }
+
+    public static Message frameOf(byte[] frame) {
+        return frameOf(frame, 0, frame.length);
     }
 
     public MessageInputStream contents() {
-        return new MessageInputStream(contents);
+        return new MessageInputStream(frame, offset + 1, length - 1);
+    }
+
+    /**
+     * @return Read-only view of the body, excluding the type header
+     */
+    public ByteBuffer body() {
+        return ByteBuffer.wrap(frame, offset + 1, length - 1).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * @return Read-only view of the entire frame, including the type header
+     */
+    public ByteBuffer frame() {
+        return ByteBuffer.wrap(frame, offset, length).slice().asReadOnlyBuffer();
     }
 
+    /**
+     * Returns the encoded frame, compressed if the body is large enough. For uncompressed frames this is
+     * the backing array itself whenever the frame spans all of it, either way it must not be modified.
+     *
+     * @return The encoded frame
+     */
     public byte[] raw() {
-        byte[] raw = new byte[contents.length + 1];
+        if (length - 1 >= MessageCompression.THRESHOLD) {
+            byte[] result = encoded;
+
+            if (result == null) {
+                result = MessageCompression.compress(frame, offset, length);
+                encoded = result = result == null ? uncompressed() : result;
+            }
+
+            return result;
+        }
 
-        raw[0] = (byte) type.ordinal();
-        System.arraycopy(contents, 0, raw, 1, contents.length);
+        return uncompressed();
+    }
+
+    private byte[] uncompressed() {
+        if (offset == 0 && length == frame.length) {
+            return frame;
+        }
+
+        byte[] raw = new byte[length];
 
+        System.arraycopy(frame, offset, raw, 0, length);
         return raw;
     }
 
+    public int size() {
+        return length;
+    }
+
     public MessageType type() {
         return type;
     }
@@ -82,6 +162,6 @@ public final class Message {
         if (type() == MessageType.BINARY)
             throw new UnsupportedOperationException("Cannot convert non-string binary to String");
 
-        return new String(contents, Charset.forName("UTF-8"));
+        return new String(frame, offset + 1, length - 1, UTF_8);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of large message bodies. A compressed frame has {@link #FLAG} set in its type
+ * header, followed by the uncompressed body length as a big-endian int and the deflated body.
+ */
+final class MessageCompression {
+    static final int FLAG = 0x80;
+    static final int THRESHOLD = 1024;
+    private static final int MAX_BODY_LENGTH = 16 * 1024 * 1024;
+    private static final int LENGTH_BYTES = 4;
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private MessageCompression() {
+    }
+
+    /**
+     * @return The compressed frame, or null if the body is below the threshold or does not shrink
+     */
+    static byte[] compress(byte[] frame, int offset, int length) {
+        int bodyLength = length - 1;
+
+        if (bodyLength < THRESHOLD) {
+            return null;
+        }
+
+        Deflater deflater = DEFLATERS.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bodyLength / 2);
+        byte[] chunk = new byte[Math.min(bodyLength, 8192)];
+
+        out.write(frame[offset] | FLAG);
+        out.write(bodyLength >>> 24);
+        out.write(bodyLength >>> 16);
+        out.write(bodyLength >>> 8);
+        out.write(bodyLength);
+
+        try {
+            deflater.setInput(frame, offset + 1, bodyLength);
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+
+                if (out.size() >= length) {
+                    return null; // incompressible, not worth it
+                }
+            }
+        } finally {
+            deflater.reset();
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @return Uncompressed frame, with the compression flag cleared
+     */
+    static byte[] decompress(byte[] frame, int offset, int length) {
+        if (length < 1 + LENGTH_BYTES) {
+            throw new IllegalArgumentException("Compressed frame is too short");
+        }
+
+        int bodyLength = ((frame[offset + 1] & 0xFF) << 24) | ((frame[offset + 2] & 0xFF) << 16)
+                | ((frame[offset + 3] & 0xFF) << 8) | (frame[offset + 4] & 0xFF);
+
+        if (bodyLength < 0 || bodyLength > MAX_BODY_LENGTH) {
+            throw new IllegalArgumentException("Invalid uncompressed length " + bodyLength);
+        }
+
+        Inflater inflater = INFLATERS.get();
+        byte[] result = new byte[bodyLength + 1];
+
+        result[0] = (byte) (frame[offset] & ~FLAG);
+
+        try {
+            inflater.setInput(frame, offset + 1 + LENGTH_BYTES, length - 1 - LENGTH_BYTES);
+
+            int read = 0;
+
+            while (read < bodyLength) {
+                int inflated = inflater.inflate(result, 1 + read, bodyLength - read);
+
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                read += inflated;
+            }
+
+            if (read != bodyLength) {
+                throw new IllegalArgumentException("Compressed body is truncated (" + read + "/" + bodyLength + ")");
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalArgumentException("Compressed body is corrupt", ex);
+        } finally {
+            inflater.reset();
+        }
+
+        return result;
+    }
+}
@@ -18,5 +18,15 @@ package io.minecloud.db.redis.msg;
 public enum MessageType {
     JSON,
     STRING,
-    BINARY
+    BINARY;
+
+    private static final MessageType[] VALUES = values();
+
+    public static MessageType fromId(int id) {
+        if (id < 0 || id >= VALUES.length) {
+            throw new IllegalArgumentException("Unknown message type " + id);
+        }
+
+        return VALUES[id];
+    }
 }
@@ -16,70 +16,146 @@
 package io.minecloud.db.redis.msg.binary;
 
 import io.minecloud.db.redis.msg.Message;
-import io.minecloud.db.redis.msg.MessageType;
 import org.json.JSONObject;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.UUID;
 
 public class MessageInputStream extends ByteArrayInputStream {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
 
     public MessageInputStream(byte[] buf) {
         super(buf);
     }
 
-    public Message readMessage() {
-        byte[] message = new byte[readVarInt32()];
-        MessageType type = MessageType.values()[read()];
-        byte[] data = new byte[message.length - 1];
-
-        System.arraycopy(message, 1, data, 0, message.length - 1);
+    public MessageInputStream(byte[] buf, int offset, int length) {
+        super(buf, offset, length);
+    }
 
-        switch (type) {
-            case BINARY:
-                return Message.messageFrom(data);
+    public Message readMessage() throws IOException {
+        int length = readVarInt32();
 
-            case JSON:
-                return Message.messageFrom(new JSONObject(new String(data, Charset.forName("UTF-8"))));
+        ensureAvailable(length);
 
-            case STRING:
-                return Message.messageFrom(new String(data, Charset.forName("UTF-8")));
+        Message message = Message.frameOf(buf, pos, length);
 
-            default:
-                throw new IllegalStateException("Invalid message type!");
-        }
+        pos += length;
+        return message;
     }
 
-    public int readVarInt32() {
+    public int readVarInt32() throws EOFException {
         int result = 0;
 
         int i = 0;
-        int b = read();
+        int b = readByte();
 
         while ((b & 0x80) == 0x80) {
             if (i > 21)
                 throw new IllegalArgumentException("Too many bytes for VarInt32!");
 
-            result += (b & 0x7F) << i;
+            result |= (b & 0x7F) << i;
             i += 7;
 
-            b = read();
+            b = readByte();
         }
 
-        return result + ((b & 0x7F) << i);
+        return result | ((b & 0x7F) << i);
+    }
+
+    public long readVarInt64() throws EOFException {
+        long result = 0;
+
+        int i = 0;
+        int b = readByte();
+
+        while ((b & 0x80) == 0x80) {
+            if (i > 56)
+                throw new IllegalArgumentException("Too many bytes for VarInt64!");
+
+            result |= (long) (b & 0x7F) << i;
+            i += 7;
+
+            b = readByte();
+        }
+
+        return result | ((long) (b & 0x7F) << i);
+    }
+
+    public int readZigZag32() throws EOFException {
+        int i = readVarInt32();
+
+        return (i >>> 1) ^ -(i & 1);
+    }
+
+    public long readZigZag64() throws EOFException {
+        long l = readVarInt64();
+
+        return (l >>> 1) ^ -(l & 1);
+    }
+
+    public boolean readBoolean() throws EOFException {
+        return readByte() != 0;
+    }
+
+    public int readInt() throws EOFException {
+        ensureAvailable(4);
+
+        int i = ((buf[pos] & 0xFF) << 24) | ((buf[pos + 1] & 0xFF) << 16)
+                | ((buf[pos + 2] & 0xFF) << 8) | (buf[pos + 3] & 0xFF);
+
+        pos += 4;
+        return i;
+    }
+
+    public long readLong() throws EOFException {
+        ensureAvailable(8);
+
+        long l = 0;
+
+        for (int i = 0; i < 8; i++) {
+            l = (l << 8) | (buf[pos++] & 0xFF);
+        }
+
+        return l;
+    }
+
+    public double readDouble() throws EOFException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public UUID readUuid() throws EOFException {
+        return new UUID(readLong(), readLong());
     }
 
     public String readString() throws IOException {
         int length = readVarInt32();
-        byte[] bytes = new byte[length];
 
-        read(bytes);
+        ensureAvailable(length);
 
-        return new String(bytes, Charset.forName("UTF-8"));
+        String s = new String(buf, pos, length, UTF_8);
+
+        pos += length;
+        return s;
     }
 
     public JSONObject readJson() throws IOException {
         return new JSONObject(readString());
     }
+
+    private int readByte() throws EOFException {
+        if (pos >= count) {
+            throw new EOFException("Unexpected end of message");
+        }
+
+        return buf[pos++] & 0xFF;
+    }
+
+    private void ensureAvailable(int length) throws EOFException {
+        if (length < 0 || length > available()) {
+            throw new EOFException("Expected " + length + " bytes but only " + available() + " remain");
+        }
+    }
 }
@@ -16,13 +16,35 @@
 package io.minecloud.db.redis.msg.binary;
 
 import io.minecloud.db.redis.msg.Message;
+import io.minecloud.db.redis.msg.MessageType;
 import org.json.JSONObject;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.UUID;
 
+/**
+ * Builds a binary message. The first byte of the buffer is reserved for the type header, so that
+ * {@link #toMessage()} can frame the written data without copying it.
+ *
+ * Variable length integers are encoded as unsigned LEB128, fixed width values are big-endian.
+ * A stream can be {@link #reset()} and reused once its message has been built.
+ */
 public class MessageOutputStream extends ByteArrayOutputStream {
+    private static final int HEADER_LENGTH = 1;
+
+    private boolean shared;
+
+    public MessageOutputStream() {
+        this(64);
+    }
+
+    public MessageOutputStream(int size) {
+        super(size + HEADER_LENGTH);
+        write(MessageType.BINARY.ordinal());
+    }
 
     public void writeMessage(Message message) throws IOException {
         byte[] raw = message.raw();
@@ -35,24 +57,175 @@ public class MessageOutputStream extends ByteArrayOutputStream {
         writeString(object.toString());
     }
 
-    public void writeString(String s) throws IOException {
-        byte[] bytes = s.getBytes(Charset.forName("UTF-8"));
+    /**
+     * Writes a VarInt32 prefixed UTF-8 string, encoded straight into the buffer
+     */
+    public synchronized void writeString(String s) throws IOException {
+        int length = utf8Length(s);
 
-        writeVarInt32(bytes.length);
-        write(bytes);
+        writeVarInt32(length);
+        ensureCapacity(count + length);
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80) {
+                buf[count++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[count++] = (byte) (0xC0 | (c >> 6));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+
+                buf[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buf[count++] = '?'; // unpaired surrogate, same replacement String#getBytes uses
+            } else {
+                buf[count++] = (byte) (0xE0 | (c >> 12));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
     }
 
     public void writeVarInt32(int i) {
-        while ((i & 0xFFFFFF) != 0L) {
+        while ((i & ~0x7F) != 0) {
             write(i & 0x7F | 0x80);
 
             i >>>= 7;
         }
 
-        write(i & 0x7F);
+        write(i);
+    }
+
+    public void writeVarInt64(long l) {
+        while ((l & ~0x7FL) != 0L) {
+            write((int) (l & 0x7F) | 0x80);
+
+            l >>>= 7;
+        }
+
+        write((int) l);
+    }
+
+    /**
+     * Writes a signed integer as a VarInt32 using zig-zag encoding, so small negative numbers stay small
+     */
+    public void writeZigZag32(int i) {
+        writeVarInt32((i << 1) ^ (i >> 31));
+    }
+
+    public void writeZigZag64(long l) {
+        writeVarInt64((l << 1) ^ (l >> 63));
+    }
+
+    public void writeBoolean(boolean b) {
+        write(b ? 1 : 0);
+    }
+
+    public synchronized void writeInt(int i) {
+        ensureCapacity(count + 4);
+
+        buf[count++] = (byte) (i >>> 24);
+        buf[count++] = (byte) (i >>> 16);
+        buf[count++] = (byte) (i >>> 8);
+        buf[count++] = (byte) i;
+    }
+
+    public synchronized void writeLong(long l) {
+        ensureCapacity(count + 8);
+
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[count++] = (byte) (l >>> shift);
+        }
+    }
+
+    public void writeDouble(double d) {
+        writeLong(Double.doubleToRawLongBits(d));
+    }
+
+    public void writeUuid(UUID id) {
+        writeLong(id.getMostSignificantBits());
+        writeLong(id.getLeastSignificantBits());
+    }
+
+    /**
+     * Frames the written data as a binary message, sharing this stream's buffer when it is already
+     * exactly sized. Nothing should be written to the stream afterwards unless it is reset first.
+     *
+     * @return The framed message
+     */
+    public synchronized Message toMessage() {
+        if (count == buf.length) {
+            shared = true;
+            return Message.frameOf(buf);
+        }
+
+        return Message.frameOf(Arrays.copyOf(buf, count));
+    }
+
+    @Override
+    public synchronized byte[] toByteArray() {
+        return Arrays.copyOfRange(buf, HEADER_LENGTH, count);
+    }
+
+    @Override
+    public synchronized int size() {
+        return count - HEADER_LENGTH;
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (shared) {
+            buf = new byte[buf.length]; // the old buffer now belongs to a message
+            shared = false;
+        }
+
+        super.reset();
+        write(MessageType.BINARY.ordinal());
+    }
+
+    @Override
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        out.write(buf, HEADER_LENGTH, count - HEADER_LENGTH);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return new String(buf, HEADER_LENGTH, count - HEADER_LENGTH);
     }
 
-    public Message toMessage() {
-        return Message.messageFrom(toByteArray());
+    private void ensureCapacity(int capacity) {
+        if (capacity > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, capacity));
+        }
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+
+/**
+ * Asks a node to kill its bungee
+ */
+@Immutable
+public final class BungeeKill {
+    public static final MessageSchema<BungeeKill> SCHEMA = MessageSchema.of(4, BungeeKill.class, BungeeKill::node,
+            (message, os) -> {
+                os.writeString(message.node);
+                os.writeString(message.bungee);
+            },
+            (is) -> new BungeeKill(is.readString(), is.readString()));
+
+    private final String node;
+    private final String bungee;
+
+    public BungeeKill(String node, String bungee) {
+        this.node = node;
+        this.bungee = bungee;
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public String bungee() {
+        return bungee;
+    }
+}
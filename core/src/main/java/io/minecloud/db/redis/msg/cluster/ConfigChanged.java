@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+
+/**
+ * Tells every process that a configuration model was pushed and cached copies are stale
+ */
+@Immutable
+public final class ConfigChanged {
+    public static final MessageSchema<ConfigChanged> SCHEMA = MessageSchema.of(9, ConfigChanged.class, (message) -> null,
+            (message, os) -> {
+                os.writeString(message.collection);
+                os.writeString(message.id);
+            },
+            (is) -> new ConfigChanged(is.readString(), is.readString()));
+
+    private final String collection;
+    private final String id;
+
+    public ConfigChanged(String collection, String id) {
+        this.collection = collection;
+        this.id = id;
+    }
+
+    public String collection() {
+        return collection;
+    }
+
+    public String id() {
+        return id;
+    }
+}
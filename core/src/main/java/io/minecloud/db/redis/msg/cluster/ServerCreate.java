@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+import io.minecloud.models.server.ServerMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Asks a node to deploy a server of the given type
+ */
+@Immutable
+public final class ServerCreate {
+    public static final MessageSchema<ServerCreate> SCHEMA = MessageSchema.of(1, ServerCreate.class, ServerCreate::node,
+            (message, os) -> {
+                os.writeString(message.node);
+                os.writeString(message.network);
+                os.writeString(message.type);
+                os.writeVarInt32(message.metadata.size());
+
+                for (ServerMetadata md : message.metadata) {
+                    os.writeString(md.key());
+                    os.writeString(md.value());
+                }
+            },
+            (is) -> {
+                String node = is.readString();
+                String network = is.readString();
+                String type = is.readString();
+                int size = is.readVarInt32();
+                List<ServerMetadata> metadata = new ArrayList<>(size);
+
+                for (int i = 0; i < size; i++) {
+                    metadata.add(new ServerMetadata(is.readString(), is.readString()));
+                }
+
+                return new ServerCreate(node, network, type, metadata);
+            });
+
+    private final String node;
+    private final String network;
+    private final String type;
+    private final List<ServerMetadata> metadata;
+
+    public ServerCreate(String node, String network, String type, List<ServerMetadata> metadata) {
+        this.node = node;
+        this.network = network;
+        this.type = type;
+        this.metadata = Collections.unmodifiableList(new ArrayList<>(metadata));
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public String network() {
+        return network;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public List<ServerMetadata> metadata() {
+        return metadata;
+    }
+}
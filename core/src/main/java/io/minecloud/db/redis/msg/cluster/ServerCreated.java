@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+
+/**
+ * Reply to a {@link ServerCreate}, sent once the node has started the server
+ */
+@Immutable
+public final class ServerCreated {
+    public static final MessageSchema<ServerCreated> SCHEMA = MessageSchema.of(7, ServerCreated.class, (message) -> null,
+            (message, os) -> {
+                os.writeString(message.node);
+                os.writeString(message.server);
+                os.writeString(message.containerId);
+                os.writeZigZag32(message.port);
+            },
+            (is) -> new ServerCreated(is.readString(), is.readString(), is.readString(), is.readZigZag32()));
+
+    private final String node;
+    private final String server;
+    private final String containerId;
+    private final int port;
+
+    public ServerCreated(String node, String server, String containerId, int port) {
+        this.node = node;
+        this.server = server;
+        this.containerId = containerId;
+        this.port = port;
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public String server() {
+        return server;
+    }
+
+    public String containerId() {
+        return containerId;
+    }
+
+    /**
+     * @return Port the server was bound to, or -1 if it is not known yet
+     */
+    public int port() {
+        return port;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+
+/**
+ * Asks a node to kill one of its servers
+ */
+@Immutable
+public final class ServerKill {
+    public static final MessageSchema<ServerKill> SCHEMA = MessageSchema.of(2, ServerKill.class, ServerKill::node,
+            (message, os) -> {
+                os.writeString(message.node);
+                os.writeString(message.server);
+            },
+            (is) -> new ServerKill(is.readString(), is.readString()));
+
+    private final String node;
+    private final String server;
+
+    public ServerKill(String node, String server) {
+        this.node = node;
+        this.server = server;
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public String server() {
+        return server;
+    }
+}
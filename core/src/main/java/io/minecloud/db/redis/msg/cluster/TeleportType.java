@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.cluster;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.schema.MessageSchema;
+
+/**
+ * Sends a player to the least populated server of a type, handled by whichever bungee the player is on
+ */
+@Immutable
+public final class TeleportType {
+    public static final MessageSchema<TeleportType> SCHEMA = MessageSchema.of(6, TeleportType.class, (message) -> null,
+            (message, os) -> {
+                os.writeString(message.player);
+                os.writeString(message.type);
+            },
+            (is) -> new TeleportType(is.readString(), is.readString()));
+
+    private final String player;
+    private final String type;
+
+    public TeleportType(String player, String type) {
+        this.player = player;
+        this.type = type;
+    }
+
+    public String player() {
+        return player;
+    }
+
+    public String type() {
+        return type;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.schema;
+
+import io.minecloud.annotation.Immutable;
+import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Precedes the body of every typed message, allowing receivers to route or drop a frame
+ * without decoding the rest of it. Requests and replies of a call also carry its correlation id,
+ * and requests name the channel their reply should be published to.
+ */
+@Immutable
+public final class MessageHeader {
+    private final int id;
+    private final String target;
+    private final UUID correlation;
+    private final String replyTo;
+
+    public MessageHeader(int id, String target) {
+        this(id, target, null, null);
+    }
+
+    public MessageHeader(int id, String target, UUID correlation, String replyTo) {
+        this.id = id;
+        this.target = target;
+        this.correlation = correlation;
+        this.replyTo = replyTo;
+    }
+
+    public static MessageHeader read(MessageInputStream is) throws IOException {
+        int id = is.readVarInt32();
+        String target = is.readString();
+        UUID correlation = is.readBoolean() ? is.readUuid() : null;
+        String replyTo = correlation != null ? is.readString() : "";
+
+        return new MessageHeader(id, target.isEmpty() ? null : target, correlation,
+                replyTo.isEmpty() ? null : replyTo);
+    }
+
+    public void write(MessageOutputStream os) throws IOException {
+        os.writeVarInt32(id);
+        os.writeString(target == null ? "" : target);
+        os.writeBoolean(correlation != null);
+
+        if (correlation != null) {
+            os.writeUuid(correlation);
+            os.writeString(replyTo == null ? "" : replyTo);
+        }
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String target() {
+        return target;
+    }
+
+    /**
+     * @return Correlation id of the call this message belongs to, or null if it is not part of one
+     */
+    public UUID correlation() {
+        return correlation;
+    }
+
+    /**
+     * @return Channel the sender expects a reply on, or null if no reply is expected
+     */
+    public String replyTo() {
+        return replyTo;
+    }
+
+    public boolean addressedTo(String node) {
+        return target == null || target.equalsIgnoreCase(node);
+    }
+}
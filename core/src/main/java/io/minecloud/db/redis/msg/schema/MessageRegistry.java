@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.schema;
+
+import io.minecloud.MineCloudException;
+import io.minecloud.db.redis.msg.Message;
+import io.minecloud.db.redis.msg.MessageType;
+import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+import io.minecloud.db.redis.msg.cluster.BungeeCreate;
+import io.minecloud.db.redis.msg.cluster.BungeeKill;
+import io.minecloud.db.redis.msg.cluster.ConfigChanged;
+import io.minecloud.db.redis.msg.cluster.ServerCreate;
+import io.minecloud.db.redis.msg.cluster.ServerCreated;
+import io.minecloud.db.redis.msg.cluster.ServerKill;
+import io.minecloud.db.redis.msg.cluster.Teleport;
+import io.minecloud.db.redis.msg.cluster.TeleportType;
+import io.minecloud.db.redis.pubsub.ChannelMetrics;
+import io.minecloud.db.redis.rpc.CallFailed;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps typed messages to their numeric id and wire schema. Typed messages are binary messages
+ * consisting of a {@link MessageHeader} followed by the schema encoded body.
+ */
+public final class MessageRegistry {
+    private static final Map<Integer, MessageSchema<?>> SCHEMAS_BY_ID = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, MessageSchema<?>> SCHEMAS_BY_TYPE = new ConcurrentHashMap<>();
+
+    static {
+        register(ServerCreate.SCHEMA);
+        register(ServerKill.SCHEMA);
+        register(BungeeCreate.SCHEMA);
+        register(BungeeKill.SCHEMA);
+        register(Teleport.SCHEMA);
+        register(TeleportType.SCHEMA);
+        register(ServerCreated.SCHEMA);
+        register(CallFailed.SCHEMA);
+        register(ConfigChanged.SCHEMA);
+    }
+
+    private MessageRegistry() {}
+
+    public static void register(MessageSchema<?> schema) {
+        MessageSchema<?> existing = SCHEMAS_BY_ID.putIfAbsent(schema.id(), schema);
+
+        if (existing != null && existing != schema) {
+            throw new IllegalArgumentException("Message id " + schema.id() + " is already registered to "
+                    + existing.type().getSimpleName());
+        }
+
+        SCHEMAS_BY_TYPE.put(schema.type(), schema);
+    }
+
+    public static MessageSchema<?> schemaBy(int id) {
+        return SCHEMAS_BY_ID.get(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> MessageSchema<T> schemaOf(Class<T> type) {
+        MessageSchema<T> schema = (MessageSchema<T>) SCHEMAS_BY_TYPE.get(type);
+
+        if (schema == null) {
+            throw new IllegalArgumentException(type.getSimpleName() + " is not a registered message");
+        }
+
+        return schema;
+    }
+
+    public static <T> Message encode(T message) {
+        return encode(message, null, null);
+    }
+
+    /**
+     * Encodes a message belonging to a call
+     *
+     * @param message Message to encode
+     * @param correlation Correlation id of the call
+     * @param replyTo Channel the reply should be published to, or null if this is the reply
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Message encode(T message, UUID correlation, String replyTo) {
+        MessageSchema<T> schema = schemaOf((Class<T>) message.getClass());
+        MessageOutputStream os = new MessageOutputStream();
+
+        try {
+            new MessageHeader(schema.id(), schema.target(message), correlation, replyTo).write(os);
+            schema.encode(message, os);
+        } catch (IOException ex) {
+            throw new MineCloudException("Could not encode " + schema.type().getSimpleName(), ex);
+        }
+
+        return os.toMessage();
+    }
+
+    /**
+     * Reads the header of a typed message, leaving the stream positioned at the body
+     *
+     * @param message Received message
+     * @param stream Stream over the message contents
+     * @return The header, or null if the message is not a typed message
+     */
+    public static MessageHeader header(Message message, MessageInputStream stream) throws IOException {
+        if (message.type() != MessageType.BINARY) {
+            return null;
+        }
+
+        return MessageHeader.read(stream);
+    }
+
+    /**
+     * Decodes a typed message if it is addressed to the given node and is of the expected type,
+     * the body is only decoded once both checks pass
+     *
+     * @param node Name of the receiving node, or null to accept messages regardless of their target
+     * @param message Received message
+     * @param type Expected message class
+     * @return The decoded message, or null if the message was rejected
+     */
+    public static <T> T decode(String node, Message message, Class<T> type) throws IOException {
+        MessageInputStream stream = message.contents();
+        MessageHeader header = header(message, stream);
+
+        if (header == null || (node != null && !header.addressedTo(node))) {
+            return null;
+        }
+
+        return decode(header, stream, type);
+    }
+
+    /**
+     * Decodes the body following a header that has already been read
+     *
+     * @return The decoded message, or null if the header belongs to a different message type
+     */
+    public static <T> T decode(MessageHeader header, MessageInputStream stream, Class<T> type) throws IOException {
+        MessageSchema<T> schema = schemaOf(type);
+
+        if (header.id() != schema.id()) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        T body = schema.decode(stream);
+
+        ChannelMetrics.recordDecode(System.nanoTime() - start);
+        return body;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.schema;
+
+import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Describes how a typed message is addressed and laid out on the wire
+ *
+ * @param <T> Message class
+ */
+public interface MessageSchema<T> {
+    public int id();
+
+    public Class<T> type();
+
+    /**
+     * @param message Message being sent
+     * @return Name of the node the message is addressed to, or null if it is meant for everyone
+     */
+    public String target(T message);
+
+    public void encode(T message, MessageOutputStream os) throws IOException;
+
+    public T decode(MessageInputStream is) throws IOException;
+
+    public static <T> MessageSchema<T> of(int id, Class<T> type, Function<T, String> target,
+                                          Encoder<T> encoder, Decoder<T> decoder) {
+        return new MessageSchema<T>() {
+            @Override
+            public int id() {
+                return id;
+            }
+
+            @Override
+            public Class<T> type() {
+                return type;
+            }
+
+            @Override
+            public String target(T message) {
+                return target.apply(message);
+            }
+
+            @Override
+            public void encode(T message, MessageOutputStream os) throws IOException {
+                encoder.encode(message, os);
+            }
+
+            @Override
+            public T decode(MessageInputStream is) throws IOException {
+                return decoder.decode(is);
+            }
+        };
+    }
+
+    public interface Encoder<T> {
+        void encode(T message, MessageOutputStream os) throws IOException;
+    }
+
+    public interface Decoder<T> {
+        T decode(MessageInputStream is) throws IOException;
+    }
+}
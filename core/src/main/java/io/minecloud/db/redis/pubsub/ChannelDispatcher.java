@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.pubsub;
+
+import io.minecloud.MineCloud;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Runs channel callbacks off the subscriber thread on a bounded worker pool. Tasks sharing a key are
+ * executed one at a time in the order they were dispatched. Dispatching never blocks, since it runs on
+ * the shared subscriber thread, and nothing slows down the publishers, so a queue can fill up.
+ * <p>
+ * Only tasks dispatched as droppable, for channels whose messages are superseded by the next one
+ * (such as periodic status), are dropped once their queue holds {@value #QUEUE_CAPACITY} tasks, and
+ * callers count them in their {@link ChannelMetrics}. Every other task, which includes commands such
+ * as server-kill, teleport and config-changed, is queued regardless of the capacity, trading memory
+ * for not losing it; a warning is logged while a queue is over capacity.
+ */
+public final class ChannelDispatcher {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int DRAIN_BATCH = 64;
+
+    private final Map<String, DispatchQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    private ChannelDispatcher(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+
+        this.workers = Executors.newFixedThreadPool(threads, (runnable) -> {
+            Thread thread = new Thread(runnable, "MineCloud - Dispatcher #" + counter.incrementAndGet());
+
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static ChannelDispatcher create(int threads) {
+        return new ChannelDispatcher(threads);
+    }
+
+    public static ChannelDispatcher create() {
+        return create(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Queues a task behind every other task dispatched with the same key
+     *
+     * @param key Ordering key, usually the channel name
+     * @param task Task to run
+     * @param droppable Whether the task may be dropped when the queue is full
+     * @return Whether the task was queued, false if it was dropped
+     */
+    public boolean dispatch(String key, Runnable task, boolean droppable) {
+        return queues.computeIfAbsent(key, DispatchQueue::new).offer(task, droppable);
+    }
+
+    /**
+     * Queues a task which must not be dropped behind every other task dispatched with the same key
+     */
+    public void dispatch(String key, Runnable task) {
+        dispatch(key, task, false);
+    }
+
+    public DispatchQueue queueBy(String key) {
+        return queues.get(key);
+    }
+
+    public Collection<DispatchQueue> queues() {
+        return Collections.unmodifiableCollection(queues.values());
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public final class DispatchQueue {
+        // unbounded, the capacity is only enforced for droppable tasks
+        private final BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final AtomicBoolean overflowing = new AtomicBoolean(false);
+        private final String key;
+
+        private DispatchQueue(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public int depth() {
+            return tasks.size();
+        }
+
+        private boolean offer(Runnable task, boolean droppable) {
+            int depth = tasks.size();
+
+            if (depth >= QUEUE_CAPACITY) {
+                // warn once per overflow rather than for every message
+                if (overflowing.compareAndSet(false, true)) {
+                    MineCloud.logger().warning("Dispatch queue for " + key + " is over capacity (" + depth +
+                            " tasks), dropping droppable messages and queueing the rest");
+                }
+
+                if (droppable) {
+                    return false;
+                }
+            } else if (overflowing.get() && depth < QUEUE_CAPACITY / 2 && overflowing.compareAndSet(true, false)) {
+                MineCloud.logger().info("Dispatch queue for " + key + " is back under capacity");
+            }
+
+            tasks.offer(task);
+
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            Runnable task;
+
+            for (int i = 0; i < DRAIN_BATCH && (task = tasks.poll()) != null; i++) {
+                try {
+                    task.run();
+                } catch (Throwable throwable) {
+                    MineCloud.logger().log(Level.SEVERE, "Uncaught exception in dispatcher for " + key, throwable);
+                }
+            }
+
+            scheduled.set(false);
+
+            if (!tasks.isEmpty()) {
+                schedule(); // yield to other queues, then carry on
+            }
+        }
+    }
+}
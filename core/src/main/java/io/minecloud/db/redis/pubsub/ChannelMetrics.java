@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.pubsub;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic and handling statistics of a single channel, including the depth of its dispatch queue.
+ * Counters only ever grow; rates are derived by comparing two {@link Snapshot}s.
+ */
+public final class ChannelMetrics {
+    private static final ThreadLocal<ChannelMetrics> HANDLING = new ThreadLocal<>();
+
+    private final String channel;
+    private final ChannelDispatcher dispatcher;
+    private final LongAdder messagesIn = new LongAdder();
+    private final LongAdder messagesOut = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder decoded = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram handlerLatency = new LatencyHistogram();
+
+    ChannelMetrics(String channel, ChannelDispatcher dispatcher) {
+        this.channel = channel;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Attributes time spent decoding a message body to the channel whose callback is running on the
+     * calling thread, see {@link #handling(Runnable)}
+     */
+    public static void recordDecode(long nanos) {
+        ChannelMetrics metrics = HANDLING.get();
+
+        if (metrics != null) {
+            metrics.decoded.increment();
+            metrics.decodeNanos.add(nanos);
+        }
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    public void recordIn(int bytes) {
+        messagesIn.increment();
+        bytesIn.add(bytes);
+    }
+
+    public void recordOut(int bytes) {
+        messagesOut.increment();
+        bytesOut.add(bytes);
+    }
+
+    public void recordMalformed() {
+        malformed.increment();
+    }
+
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public void recordHandled(long nanos, boolean success) {
+        handlerLatency.record(nanos);
+
+        if (!success) {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Runs a callback of this channel, so that messages it decodes are accounted to the channel
+     */
+    public void handling(Runnable callback) {
+        ChannelMetrics previous = HANDLING.get();
+
+        HANDLING.set(this);
+
+        try {
+            callback.run();
+        } finally {
+            if (previous == null) {
+                HANDLING.remove();
+            } else {
+                HANDLING.set(previous);
+            }
+        }
+    }
+
+    public long messagesIn() {
+        return messagesIn.sum();
+    }
+
+    public long messagesOut() {
+        return messagesOut.sum();
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * @return Average time spent decoding a message body in nanoseconds
+     */
+    public long averageDecodeTime() {
+        long messages = decoded.sum();
+
+        return messages == 0 ? 0 : decodeNanos.sum() / messages;
+    }
+
+    public long malformed() {
+        return malformed.sum();
+    }
+
+    /**
+     * @return Amount of messages dropped by the dispatcher due to back-pressure
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Amount of callbacks which threw an exception
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return Amount of callbacks waiting in the dispatch queue of this channel
+     */
+    public int queueDepth() {
+        ChannelDispatcher.DispatchQueue queue = dispatcher.queueBy(channel);
+
+        return queue == null ? 0 : queue.depth();
+    }
+
+    public LatencyHistogram handlerLatency() {
+        return handlerLatency;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public static final class Snapshot {
+        private final String channel;
+        private final long time;
+        private final long messagesIn;
+        private final long messagesOut;
+        private final long bytesIn;
+        private final long bytesOut;
+        private final long dropped;
+        private final long failed;
+        private final long decodeTime;
+        private final int queueDepth;
+        private final long handlerP50;
+        private final long handlerP99;
+        private final long handlerMax;
+
+        private Snapshot(ChannelMetrics metrics) {
+            this.channel = metrics.channel;
+            this.time = System.nanoTime();
+            this.messagesIn = metrics.messagesIn();
+            this.messagesOut = metrics.messagesOut();
+            this.bytesIn = metrics.bytesIn();
+            this.bytesOut = metrics.bytesOut();
+            this.dropped = metrics.dropped();
+            this.failed = metrics.failed();
+            this.decodeTime = metrics.averageDecodeTime();
+            this.queueDepth = metrics.queueDepth();
+            this.handlerP50 = metrics.handlerLatency.percentile(50);
+            this.handlerP99 = metrics.handlerLatency.percentile(99);
+            this.handlerMax = metrics.handlerLatency.max();
+        }
+
+        public String channel() {
+            return channel;
+        }
+
+        public double messagesInPerSecond(Snapshot previous) {
+            return rate(messagesIn - previous.messagesIn, previous);
+        }
+
+        public double messagesOutPerSecond(Snapshot previous) {
+            return rate(messagesOut - previous.messagesOut, previous);
+        }
+
+        public double bytesInPerSecond(Snapshot previous) {
+            return rate(bytesIn - previous.bytesIn, previous);
+        }
+
+        public double bytesOutPerSecond(Snapshot previous) {
+            return rate(bytesOut - previous.bytesOut, previous);
+        }
+
+        public long messagesIn() {
+            return messagesIn;
+        }
+
+        public long messagesOut() {
+            return messagesOut;
+        }
+
+        public long bytesIn() {
+            return bytesIn;
+        }
+
+        public long bytesOut() {
+            return bytesOut;
+        }
+
+        public long dropped() {
+            return dropped;
+        }
+
+        public long failed() {
+            return failed;
+        }
+
+        public long decodeTime() {
+            return decodeTime;
+        }
+
+        public int queueDepth() {
+            return queueDepth;
+        }
+
+        public long handlerP50() {
+            return handlerP50;
+        }
+
+        public long handlerP99() {
+            return handlerP99;
+        }
+
+        public long handlerMax() {
+            return handlerMax;
+        }
+
+        /**
+         * @return Whether anything was sent, received, dropped or queued since the previous snapshot
+         */
+        public boolean activeSince(Snapshot previous) {
+            return messagesIn != previous.messagesIn || messagesOut != previous.messagesOut
+                    || dropped != previous.dropped || queueDepth > 0;
+        }
+
+        /**
+         * Describes the traffic since the previous snapshot of the same channel
+         */
+        public String describe(Snapshot previous) {
+            return String.format("%s: in=%.1f/s (%.0fB/s) out=%.1f/s (%.0fB/s) dropped=%d failed=%d queued=%d"
+                            + " decode=%dus handler p99=%dus",
+                    channel, messagesInPerSecond(previous), bytesInPerSecond(previous),
+                    messagesOutPerSecond(previous), bytesOutPerSecond(previous), dropped - previous.dropped,
+                    failed - previous.failed, queueDepth, TimeUnit.NANOSECONDS.toMicros(decodeTime),
+                    TimeUnit.NANOSECONDS.toMicros(handlerP99));
+        }
+
+        private double rate(long delta, Snapshot previous) {
+            long elapsed = time - previous.time;
+
+            return elapsed <= 0 ? 0D : delta / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        @Override
+        public String toString() {
+            return channel + ": in=" + messagesIn + " (" + bytesIn + "B) out=" + messagesOut + " (" + bytesOut
+                    + "B) dropped=" + dropped + " failed=" + failed + " queued=" + queueDepth + " decode="
+                    + TimeUnit.NANOSECONDS.toMicros(decodeTime) + "us handler p50=" + TimeUnit.NANOSECONDS.toMicros(handlerP50)
+                    + "us p99=" + TimeUnit.NANOSECONDS.toMicros(handlerP99) + "us max="
+                    + TimeUnit.NANOSECONDS.toMicros(handlerMax) + "us";
+        }
+    }
+}
@@ -16,61 +16,50 @@
 package io.minecloud.db.redis.pubsub;
 
 import io.minecloud.MineCloud;
+import io.minecloud.db.redis.RedisSubscriber;
+import io.minecloud.db.redis.backend.SubscriptionListener;
 import io.minecloud.db.redis.msg.Message;
-import io.minecloud.db.redis.msg.MessageType;
-import org.json.JSONObject;
-import redis.clients.jedis.BinaryJedisPubSub;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.logging.Level;
 
-public final class ChannelPubSub extends BinaryJedisPubSub {
-    private final RedisChannel channel;
+public final class ChannelPubSub implements SubscriptionListener {
+    private final RedisSubscriber subscriber;
 
-    private ChannelPubSub(RedisChannel channel) {
-        this.channel = channel;
+    private ChannelPubSub(RedisSubscriber subscriber) {
+        this.subscriber = subscriber;
     }
 
-    static ChannelPubSub create(RedisChannel channel) {
-        return new ChannelPubSub(channel);
+    public static ChannelPubSub create(RedisSubscriber subscriber) {
+        return new ChannelPubSub(subscriber);
     }
 
     @Override
-    public void onMessage(byte[] c, byte[] message) {
-        InputStream stream = new ByteArrayInputStream(message);
-        MessageType type = MessageType.BINARY;
-
-        try {
-            type = MessageType.values()[stream.read()];
-            byte[] data = new byte[message.length - 1];
+    public void onSubscribe(byte[] channel, int subscribedChannels) {
+        if (subscribedChannels == 1) {
+            subscriber.onReady(); // the control channel is always the first subscription
+        }
+    }
 
-            stream.read(data);
+    @Override
+    public void onMessage(byte[] c, byte[] message) {
+        RedisChannel channel = subscriber.channelBy(new String(c, Charset.forName("UTF-8")));
 
-            switch (type) {
-                case BINARY:
-                    channel.handle(Message.messageFrom(data));
-                    break;
+        if (channel == null) {
+            return;
+        }
 
-                case JSON:
-                    channel.handle(Message.messageFrom(new JSONObject(new String(data, Charset.forName("UTF-8")))));
-                    break;
+        Message frame;
 
-                case STRING:
-                    channel.handle(Message.messageFrom(new String(data, Charset.forName("UTF-8"))));
-                    break;
-            }
-        } catch (IOException ex) {
-            MineCloud.logger().log(Level.WARNING,
-                    "Encountered an IOException while reading a " + type.name() + " message",
-                    ex);
+        try {
+            frame = Message.frameOf(message);
+        } catch (IllegalArgumentException ex) {
+            channel.metrics().recordMalformed();
+            MineCloud.logger().log(Level.WARNING, "Received a malformed message on " + channel.channel(), ex);
+            return;
         }
-    }
 
-    @Override
-    public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
-        onMessage(channel, message); // receive own messages C:
+        channel.metrics().recordIn(message.length);
+        channel.handle(frame);
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.pubsub;
+
+import io.minecloud.MineCloud;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-channel pub/sub statistics of this process, see {@link ChannelMetrics}. {@link #report()} is
+ * called periodically by the {@link io.minecloud.db.redis.RedisSupervisor} to log the traffic.
+ */
+public final class PubSubMetrics {
+    private final Map<String, ChannelMetrics> channels = new ConcurrentHashMap<>();
+    private final Map<String, ChannelMetrics.Snapshot> reported = new ConcurrentHashMap<>();
+    private final ChannelDispatcher dispatcher;
+
+    private PubSubMetrics(ChannelDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public static PubSubMetrics create(ChannelDispatcher dispatcher) {
+        return new PubSubMetrics(dispatcher);
+    }
+
+    public ChannelMetrics channel(String name) {
+        return channels.computeIfAbsent(name, (key) -> {
+            ChannelMetrics metrics = new ChannelMetrics(key, dispatcher);
+
+            reported.put(key, metrics.snapshot());
+            return metrics;
+        });
+    }
+
+    public Collection<ChannelMetrics> channels() {
+        return Collections.unmodifiableCollection(channels.values());
+    }
+
+    /**
+     * @return Snapshot of every channel which has seen traffic, busiest channels first
+     */
+    public List<ChannelMetrics.Snapshot> snapshot() {
+        return channels.values().stream()
+                .map(ChannelMetrics::snapshot)
+                .sorted((a, b) -> Long.compare(b.messagesIn() + b.messagesOut(), a.messagesIn() + a.messagesOut()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Logs the traffic of every channel which was active since the previous report
+     */
+    public void report() {
+        channels.values().forEach((metrics) -> {
+            ChannelMetrics.Snapshot current = metrics.snapshot();
+            ChannelMetrics.Snapshot previous = reported.put(metrics.channel(), current);
+
+            if (previous != null && current.activeSince(previous)) {
+                MineCloud.logger().info(current.describe(previous));
+            }
+        });
+    }
+}
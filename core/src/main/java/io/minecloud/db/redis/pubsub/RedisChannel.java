@@ -17,33 +17,41 @@ package io.minecloud.db.redis.pubsub;
 
 import io.minecloud.db.redis.RedisDatabase;
 import io.minecloud.db.redis.msg.Message;
-import redis.clients.jedis.Jedis;
 
-import java.nio.charset.Charset;
+import java.util.List;
 
 public abstract class RedisChannel {
     protected final RedisDatabase database;
     protected final String channel;
+    protected final ChannelMetrics metrics;
 
     protected RedisChannel(String channel, RedisDatabase database) {
         this.database = database;
         this.channel = channel;
-
-        new Thread(() -> {
-            try (Jedis resource = database.grabResource()) {
-                resource.subscribe(ChannelPubSub.create(this), channel.getBytes(Charset.forName("UTF-8")));
-            }
-        }, "MineCloud - Channel '" + channel + " Thread").start();
+        this.metrics = database.metrics().channel(channel);
     }
 
     public String channel() {
         return channel;
     }
 
+    public ChannelMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Name of the per-node variant of a channel, such as server-create:node-1
+     */
+    public static String addressed(String channel, String node) {
+        return channel + ":" + node.toLowerCase();
+    }
+
     public void publish(Message message) {
-        try (Jedis resource = database.grabResource()) {
-            resource.publish(channel.getBytes(Charset.forName("UTF-8")), message.raw());
-        }
+        database.publish(channel, message);
+    }
+
+    public void publishAll(List<Message> messages) {
+        database.publishAll(channel, messages);
     }
 
     public abstract void handle(Message message);
@@ -19,12 +19,12 @@ import io.minecloud.MineCloudException;
 import io.minecloud.db.redis.RedisDatabase;
 import io.minecloud.db.redis.msg.Message;
 
-import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SimpleRedisChannel extends RedisChannel {
-    private List<ChannelCallback> callbacks = new LinkedList<>();
+    private final List<ChannelCallback> callbacks = new CopyOnWriteArrayList<>();
+    private volatile boolean droppable = false;
 
     private SimpleRedisChannel(String channel, RedisDatabase database) {
         super(channel, database);
@@ -39,6 +39,21 @@ public class SimpleRedisChannel extends RedisChannel {
         return this;
     }
 
+    /**
+     * Allows messages of this channel to be dropped while its dispatch queue is full. Only meant for
+     * channels whose messages are superseded by the next one, never for commands.
+     *
+     * @see ChannelDispatcher
+     */
+    public SimpleRedisChannel droppable(boolean droppable) {
+        this.droppable = droppable;
+        return this;
+    }
+
+    public boolean droppable() {
+        return droppable;
+    }
+
     public void removeCallback(int index) {
         callbacks.remove(index);
     }
@@ -49,12 +64,26 @@ public class SimpleRedisChannel extends RedisChannel {
 
     @Override
     public void handle(Message message) {
-        callbacks.forEach((c) -> {
+        if (callbacks.isEmpty()) {
+            return;
+        }
+
+        boolean queued = database.dispatcher().dispatch(channel, () -> metrics.handling(() -> callbacks.forEach((c) -> {
+            long start = System.nanoTime();
+            boolean success = false;
+
             try {
                 c.call(message);
+                success = true;
             } catch (Exception ex) {
                 new MineCloudException(ex).printStackTrace();
+            } finally {
+                metrics.recordHandled(System.nanoTime() - start, success);
             }
-        });
+        })), droppable);
+
+        if (!queued) {
+            metrics.recordDropped();
+        }
     }
 }
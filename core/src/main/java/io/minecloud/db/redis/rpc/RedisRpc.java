@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.rpc;
+
+import io.minecloud.MineCloud;
+import io.minecloud.MineCloudException;
+import io.minecloud.db.redis.RedisBatch;
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.RedisQueue;
+import io.minecloud.db.redis.msg.Message;
+import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.schema.MessageHeader;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.db.redis.pubsub.RedisChannel;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Request/response calls on top of pub/sub. Every instance listens on its own reply channel,
+ * requests carry a correlation id and that channel in their header, and the receiving side
+ * answers through {@link RpcRequest#reply(Object)} or {@link RpcRequest#fail(String)}.
+ */
+public final class RedisRpc {
+    private static final String REPLY_PREFIX = "rpc-reply:";
+
+    private final RedisDatabase database;
+    private final String replyChannel;
+    private final Map<UUID, PendingCall<?>> calls = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timeouts;
+
+    private RedisRpc(RedisDatabase database) {
+        this.database = database;
+        this.replyChannel = REPLY_PREFIX + UUID.randomUUID();
+        this.timeouts = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "MineCloud - RPC Timeout Thread");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static RedisRpc create(RedisDatabase database) {
+        RedisRpc rpc = new RedisRpc(database);
+
+        database.addChannel(rpc.new ReplyChannel());
+        return rpc;
+    }
+
+    /**
+     * Publishes a request and waits for its reply
+     *
+     * @param channel Channel the request is published to
+     * @param request Registered message to send
+     * @param replyType Registered message class of the expected reply
+     * @param timeout Time to wait for the reply before the future fails with a {@link TimeoutException}
+     * @return Future completed with the reply, or failed with a {@link MineCloudException} if the
+     *         receiver answered with {@link CallFailed}
+     */
+    public <T> CompletableFuture<T> call(String channel, Object request, Class<T> replyType,
+                                         long timeout, TimeUnit unit) {
+        return call(channel, (message) -> database.publish(channel, message), request, replyType, timeout, unit);
+    }
+
+    /**
+     * Pushes a request onto a durable queue and waits for its reply, the timeout should allow for
+     * the request to wait in the queue while its consumer is unavailable
+     *
+     * @see #call(String, Object, Class, long, TimeUnit)
+     */
+    public <T> CompletableFuture<T> call(RedisQueue queue, Object request, Class<T> replyType,
+                                         long timeout, TimeUnit unit) {
+        return call(queue.name(), queue::push, request, replyType, timeout, unit);
+    }
+
+    /**
+     * Adds a request for a durable queue to the batch, it is sent once the batch is flushed
+     *
+     * @see #call(RedisQueue, Object, Class, long, TimeUnit)
+     */
+    public <T> CompletableFuture<T> call(RedisBatch batch, RedisQueue queue, Object request, Class<T> replyType,
+                                         long timeout, TimeUnit unit) {
+        return call(queue.name(), (message) -> batch.push(queue, message), request, replyType, timeout, unit);
+    }
+
+    private <T> CompletableFuture<T> call(String destination, Consumer<Message> sender, Object request,
+                                          Class<T> replyType, long timeout, TimeUnit unit) {
+        UUID correlation = UUID.randomUUID();
+        PendingCall<T> call = new PendingCall<>(replyType);
+
+        calls.put(correlation, call);
+        call.timeout = timeouts.schedule(() -> {
+            if (calls.remove(correlation) != null) {
+                call.future.completeExceptionally(new TimeoutException("No reply to "
+                        + request.getClass().getSimpleName() + " on " + destination + " within " + timeout + " " + unit));
+            }
+        }, timeout, unit);
+
+        try {
+            sender.accept(MessageRegistry.encode(request, correlation, replyChannel));
+        } catch (Exception ex) {
+            calls.remove(correlation);
+            call.timeout.cancel(false);
+            call.future.completeExceptionally(ex);
+        }
+
+        return call.future;
+    }
+
+    /**
+     * Decodes an incoming request so that it can be answered
+     *
+     * @param node Name of the receiving node, or null to accept requests regardless of their target
+     * @param message Received message
+     * @param type Expected request class
+     * @return The request, or null if the message was rejected
+     */
+    public <T> RpcRequest<T> request(String node, Message message, Class<T> type) throws IOException {
+        MessageInputStream stream = message.contents();
+        MessageHeader header = MessageRegistry.header(message, stream);
+
+        if (header == null || (node != null && !header.addressedTo(node))) {
+            return null;
+        }
+
+        T body = MessageRegistry.decode(header, stream, type);
+
+        return body == null ? null : new RpcRequest<>(database, header, body);
+    }
+
+    public String replyChannel() {
+        return replyChannel;
+    }
+
+    /**
+     * @return Amount of calls still waiting for a reply
+     */
+    public int pending() {
+        return calls.size();
+    }
+
+    private void complete(Message message) throws IOException {
+        MessageInputStream stream = message.contents();
+        MessageHeader header = MessageRegistry.header(message, stream);
+
+        if (header == null || header.correlation() == null) {
+            return;
+        }
+
+        PendingCall<?> call = calls.remove(header.correlation());
+
+        if (call == null) {
+            return; // already timed out
+        }
+
+        call.timeout.cancel(false);
+
+        CallFailed failure = MessageRegistry.decode(header, stream, CallFailed.class);
+
+        if (failure != null) {
+            call.future.completeExceptionally(new MineCloudException(failure.reason()));
+            return;
+        }
+
+        call.complete(header, stream);
+    }
+
+    private final class ReplyChannel extends RedisChannel {
+        private ReplyChannel() {
+            super(RedisRpc.this.replyChannel, RedisRpc.this.database);
+        }
+
+        @Override
+        public void handle(Message message) {
+            // a dropped reply would leave its call waiting for the timeout
+            database.dispatcher().dispatch(channel, () -> metrics.handling(() -> {
+                long start = System.nanoTime();
+                boolean success = false;
+
+                try {
+                    complete(message);
+                    success = true;
+                } catch (IOException | RuntimeException ex) {
+                    MineCloud.logger().log(Level.WARNING, "Received a malformed reply on " + channel, ex);
+                } finally {
+                    metrics.recordHandled(System.nanoTime() - start, success);
+                }
+            }));
+        }
+    }
+
+    private static final class PendingCall<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Class<T> replyType;
+        private volatile ScheduledFuture<?> timeout;
+
+        private PendingCall(Class<T> replyType) {
+            this.replyType = replyType;
+        }
+
+        private void complete(MessageHeader header, MessageInputStream stream) throws IOException {
+            T reply = MessageRegistry.decode(header, stream, replyType);
+
+            if (reply == null) {
+                future.completeExceptionally(new MineCloudException("Expected a " + replyType.getSimpleName()
+                        + " reply, received message id " + header.id()));
+                return;
+            }
+
+            future.complete(reply);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.rpc;
+
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.msg.schema.MessageHeader;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A received request which may be answered at most once. Answering a request whose sender
+ * did not ask for a reply does nothing.
+ *
+ * @param <T> Request message class
+ */
+public final class RpcRequest<T> {
+    private final RedisDatabase database;
+    private final MessageHeader header;
+    private final T body;
+    private final AtomicBoolean answered = new AtomicBoolean();
+
+    RpcRequest(RedisDatabase database, MessageHeader header, T body) {
+        this.database = database;
+        this.header = header;
+        this.body = body;
+    }
+
+    public T body() {
+        return body;
+    }
+
+    public boolean expectsReply() {
+        return header.replyTo() != null;
+    }
+
+    public void reply(Object reply) {
+        if (expectsReply() && answered.compareAndSet(false, true)) {
+            database.publish(header.replyTo(), MessageRegistry.encode(reply, header.correlation(), null));
+        }
+    }
+
+    public void fail(String reason) {
+        reply(new CallFailed(reason));
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.minecloud.models.bungee;
 
+import io.minecloud.db.mongo.ConfigCache;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.models.bungee.type.BungeeType;
 import io.minecloud.models.network.Network;
@@ -22,9 +24,16 @@ import io.minecloud.models.nodes.Node;
 import lombok.EqualsAndHashCode;
 import lombok.Setter;
 import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Field;
+import org.mongodb.morphia.annotations.Index;
+import org.mongodb.morphia.annotations.Indexes;
 import org.mongodb.morphia.annotations.Reference;
 
 @Entity(value = "bungees", noClassnameStored = true)
+@Indexes({
+        @Index(fields = {@Field("network"), @Field("type")}),
+        @Index(fields = @Field("node"))
+})
 public class Bungee extends MongoEntity {
     @Reference(lazy = true)
     @Setter
@@ -39,11 +48,11 @@ public class Bungee extends MongoEntity {
     private String publicIp;
 
     public Network network() {
-        return network;
+        return MongoSession.attached(network);
     }
 
     public BungeeType type() {
-        return type;
+        return ConfigCache.cached(type);
     }
 
     public String containerId() {
@@ -51,7 +60,7 @@ public class Bungee extends MongoEntity {
     }
 
     public Node node() {
-        return node;
+        return MongoSession.attached(node);
     }
 
     public String publicIp() {
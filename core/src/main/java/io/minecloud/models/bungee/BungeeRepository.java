@@ -15,9 +15,14 @@
  */
 package io.minecloud.models.bungee;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
 import io.minecloud.db.mongo.AbstractMongoRepository;
 import org.mongodb.morphia.Datastore;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class BungeeRepository extends AbstractMongoRepository<Bungee> {
     private BungeeRepository(Datastore datastore) {
         super(Bungee.class, datastore);
@@ -26,4 +31,24 @@ public class BungeeRepository extends AbstractMongoRepository<Bungee> {
     public static BungeeRepository create(Datastore datastore) {
         return new BungeeRepository(datastore);
     }
+
+    /**
+     * Counts bungees per network and bungee type in a single aggregation
+     * @return Counts keyed by network name, then bungee type name
+     */
+    public Map<String, Map<String, Integer>> countsByNetwork() {
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+
+        aggregate(new BasicDBObject("$group", new BasicDBObject("_id", new BasicDBObject("network", "$network")
+                        .append("type", "$type"))
+                        .append("bungees", new BasicDBObject("$sum", 1))))
+                .forEach((result) -> {
+                    DBObject id = (DBObject) result.get("_id");
+
+                    counts.computeIfAbsent(referencedId(id.get("network")), (network) -> new HashMap<>())
+                            .put(referencedId(id.get("type")), ((Number) result.get("bungees")).intValue());
+                });
+
+        return counts;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package io.minecloud.models.bungee.type;
 
+import io.minecloud.db.mongo.ConfigCache;
 import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.models.nodes.type.NodeType;
 import io.minecloud.models.plugins.Plugin;
@@ -52,7 +53,7 @@ public class BungeeType extends MongoEntity {
     }
 
     public NodeType preferredNode() {
-        return preferredNode;
+        return ConfigCache.cached(preferredNode);
     }
 
     public void setName(String name) {
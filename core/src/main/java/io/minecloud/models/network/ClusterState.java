@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.network;
+
+import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.models.bungee.Bungee;
+import io.minecloud.models.bungee.BungeeRepository;
+import io.minecloud.models.bungee.type.BungeeType;
+import io.minecloud.models.server.PlayerCount;
+import io.minecloud.models.server.Server;
+import io.minecloud.models.server.ServerRepository;
+import io.minecloud.models.server.type.ServerType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A snapshot of how many servers, pending servers, players and bungees each network runs per
+ * type, loaded with one aggregation per collection so a reconciliation pass costs the same
+ * number of round trips regardless of how many networks and types exist.
+ */
+public final class ClusterState {
+    private final Map<String, Map<String, PlayerCount>> servers = new HashMap<>();
+    private final Map<String, Map<String, Integer>> bungees;
+    private final long loadedAt;
+
+    private ClusterState(Iterable<PlayerCount> serverCounts, Map<String, Map<String, Integer>> bungees) {
+        serverCounts.forEach((count) -> servers.computeIfAbsent(count.network(), (network) -> new HashMap<>())
+                .put(count.type(), count));
+
+        this.bungees = bungees;
+        this.loadedAt = System.currentTimeMillis();
+    }
+
+    public static ClusterState load() {
+        MongoDatabase mongo = MineCloud.instance().mongo();
+        ServerRepository serverRepository = mongo.repositoryBy(Server.class);
+        BungeeRepository bungeeRepository = mongo.repositoryBy(Bungee.class);
+
+        return new ClusterState(serverRepository.playerCountsByNetwork(), bungeeRepository.countsByNetwork());
+    }
+
+    public PlayerCount servers(Network network, ServerType type) {
+        PlayerCount count = servers.getOrDefault(network.name(), Collections.emptyMap()).get(type.name());
+
+        return count == null ? PlayerCount.create(network.name(), type.name(), 0, 0, 0) : count;
+    }
+
+    public int serversOnline(Network network) {
+        return servers.getOrDefault(network.name(), Collections.emptyMap()).values().stream()
+                .mapToInt(PlayerCount::servers)
+                .sum();
+    }
+
+    public int playersOnline(Network network) {
+        return PlayerCount.totalPlayers(servers.getOrDefault(network.name(), Collections.emptyMap()).values());
+    }
+
+    public int bungeesOnline(Network network, BungeeType type) {
+        return bungees.getOrDefault(network.name(), Collections.emptyMap()).getOrDefault(type.name(), 0);
+    }
+
+    public long loadedAt() {
+        return loadedAt;
+    }
+}
@@ -16,12 +16,21 @@
 package io.minecloud.models.network;
 
 import io.minecloud.MineCloud;
+import io.minecloud.MineCloudException;
+import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.mongo.model.MongoEntity;
-import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+import io.minecloud.db.redis.RedisBatch;
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.RedisQueue;
+import io.minecloud.db.redis.msg.cluster.BungeeCreate;
+import io.minecloud.db.redis.msg.cluster.ServerCreate;
+import io.minecloud.db.redis.msg.cluster.ServerCreated;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.db.redis.pubsub.RedisChannel;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.BungeeRepository;
 import io.minecloud.models.bungee.type.BungeeType;
-import io.minecloud.models.bungee.type.BungeeTypeRepository;
 import io.minecloud.models.network.server.ServerNetworkMetadata;
 import io.minecloud.models.nodes.Node;
 import io.minecloud.models.nodes.NodeRepository;
@@ -34,14 +43,18 @@ import lombok.Setter;
 import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Reference;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Level;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Entity(value = "networks", noClassnameStored = true)
 public class Network extends MongoEntity {
+    private static final long DEPLOY_TIMEOUT = 60L;
+
     @Setter
     private List<ServerNetworkMetadata> serverMetadata;
     @Setter
@@ -55,62 +68,88 @@ public class Network extends MongoEntity {
             throw new IllegalArgumentException("Cannot deploy " + type + " on network; is not a valid network bungee type!");
         }
 
-        MessageOutputStream os = new MessageOutputStream();
-
-        try {
-            os.writeString(node.name());
-            os.writeString(name());
-            os.writeString(type.name());
-        } catch (IOException e) {
-            MineCloud.logger().log(Level.SEVERE, "Encountered an odd exception whilst encoding a message", e);
-            return;
-        }
+        RedisDatabase redis = MineCloud.instance().redis();
 
-        MineCloud.instance().redis().channelBy("bungee-create").publish(os.toMessage());
+        RedisQueue.create(RedisChannel.addressed("bungee-create", node.name()), redis, DEPLOY_TIMEOUT, TimeUnit.SECONDS)
+                .push(MessageRegistry.encode(new BungeeCreate(node.name(), name(), type.name())));
     }
 
-    public Node deployServer(ServerType type, ServerMetadata... metadata) {
+    /**
+     * Asks the best fitting node to deploy a server of the given type
+     *
+     * @return Future completed once the node reports the server as started, failed if the node could not
+     *         start it or did not answer within a minute. A request the node has not taken by then is
+     *         dropped from its queue, so a node coming back does not replay deploys already given up on.
+     */
+    public CompletableFuture<ServerCreated> deployServer(ServerType type, ServerMetadata... metadata) {
         NodeRepository nodeRepo = MineCloud.instance().mongo().repositoryBy(Node.class);
-        MessageOutputStream os = new MessageOutputStream();
         Node node = nodeRepo.findNode(this, type.preferredNode(), type.dedicatedRam());
 
-        try {
-            os.writeString(node.name());
-            os.writeString(name());
-            os.writeString(type.name());
-            os.writeVarInt32(metadata.length);
+        RedisDatabase redis = MineCloud.instance().redis();
+
+        return redis.rpc().call(deployQueue(node, redis),
+                new ServerCreate(node.name(), name(), type.name(), Arrays.asList(metadata)), ServerCreated.class,
+                DEPLOY_TIMEOUT, TimeUnit.SECONDS);
+    }
 
-            for (ServerMetadata md : metadata) {
-                os.writeString(md.key());
-                os.writeString(md.value());
+    /**
+     * Asks for several servers of the given type at once, placing each one as if the previous ones were
+     * already running and sending every request in a single round trip
+     *
+     * @return Futures for each requested server, see {@link #deployServer(ServerType, ServerMetadata...)}
+     */
+    public List<CompletableFuture<ServerCreated>> deployServers(ServerType type, int amount, ServerMetadata... metadata) {
+        NodeRepository nodeRepo = MineCloud.instance().mongo().repositoryBy(Node.class);
+        RedisDatabase redis = MineCloud.instance().redis();
+        List<CompletableFuture<ServerCreated>> futures = new ArrayList<>(amount);
+        Map<String, Integer> reservedRam = new HashMap<>();
+
+        try (RedisBatch batch = redis.batch()) {
+            for (int i = 0; i < amount; i++) {
+                Node node = nodeRepo.findNode(this, type.preferredNode(), type.dedicatedRam(), reservedRam);
+
+                if (node == null) {
+                    CompletableFuture<ServerCreated> future = new CompletableFuture<>();
+
+                    future.completeExceptionally(new MineCloudException("No node on " + name()
+                            + " has enough ram for " + type.name()));
+                    futures.add(future);
+                    continue;
+                }
+
+                reservedRam.merge(node.name(), type.dedicatedRam(), Integer::sum);
+                futures.add(redis.rpc().call(batch, deployQueue(node, redis),
+                        new ServerCreate(node.name(), name(), type.name(), Arrays.asList(metadata)), ServerCreated.class,
+                        DEPLOY_TIMEOUT, TimeUnit.SECONDS));
             }
-        } catch (IOException e) {
-            MineCloud.logger().log(Level.SEVERE, "Encountered an odd exception whilst encoding a message", e);
-            return node;
         }
 
-        MineCloud.instance().redis().channelBy("server-create").publish(os.toMessage());
-        return node;
+        return futures;
     }
 
     public String name() {
         return entityId();
     }
 
+    private static RedisQueue deployQueue(Node node, RedisDatabase redis) {
+        return RedisQueue.create(RedisChannel.addressed("server-create", node.name()), redis,
+                DEPLOY_TIMEOUT, TimeUnit.SECONDS);
+    }
+
     public List<ServerNetworkMetadata> serverMetadata() {
         return serverMetadata;
     }
 
     public Map<BungeeType, Integer> bungeeMetadata() {
         Map<BungeeType, Integer> metadata = new HashMap<>();
-        BungeeTypeRepository repository = MineCloud.instance().mongo().repositoryBy(BungeeType.class);
+        MongoDatabase mongo = MineCloud.instance().mongo();
 
         if (bungees == null) {
             return metadata;
         }
 
         for (Map.Entry<String, Integer> entry : bungees.entrySet()) {
-            metadata.put(repository.findFirst(entry.getKey()), entry.getValue());
+            metadata.put(mongo.cached(BungeeType.class, entry.getKey()), entry.getValue());
         }
 
         return metadata;
@@ -147,7 +186,7 @@ public class Network extends MongoEntity {
     }
 
     public List<Node> nodes() {
-        return nodes;
+        return MongoSession.attached(nodes);
     }
 
     public void setName(String name) {
@@ -15,6 +15,7 @@
  */
 package io.minecloud.models.network.server;
 
+import io.minecloud.db.mongo.ConfigCache;
 import io.minecloud.models.server.type.ServerType;
 import lombok.Setter;
 import org.mongodb.morphia.annotations.Reference;
@@ -29,7 +30,7 @@ public class ServerNetworkMetadata {
     private int maximumAmount;
 
     public ServerType type() {
-        return type;
+        return ConfigCache.cached(type);
     }
 
     public int minimumAmount() {
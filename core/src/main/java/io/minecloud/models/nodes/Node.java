@@ -16,6 +16,8 @@
 package io.minecloud.models.nodes;
 
 import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.ConfigCache;
+import io.minecloud.db.mongo.Criteria;
 import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.nodes.type.NodeType;
@@ -26,7 +28,6 @@ import org.mongodb.morphia.annotations.Reference;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Entity(value = "nodes", noClassnameStored = true)
 public class Node extends MongoEntity {
@@ -55,7 +56,7 @@ public class Node extends MongoEntity {
     }
 
     public NodeType type() {
-        return type;
+        return ConfigCache.cached(type);
     }
 
     public List<CoreMetadata> coreMetadata() {
@@ -83,10 +84,10 @@ public class Node extends MongoEntity {
     public double allocatedRam() {
         Collection<Server> servers = MineCloud.instance().mongo()
                 .repositoryBy(Server.class)
-                .findAll((server) -> server.node().name().equals(name()));
+                .findAll(Criteria.create(Server.class).references("node", this));
         Collection<Bungee> bungees = MineCloud.instance().mongo()
                 .repositoryBy(Bungee.class)
-                .findAll((bungee) -> bungee.node().name().equals(name()));
+                .findAll(Criteria.create(Bungee.class).references("node", this));
         int ramUsed = 0;
 
         for (Server server : servers) {
@@ -97,7 +98,7 @@ public class Node extends MongoEntity {
             ramUsed += bungee.type().dedicatedRam();
         }
 
-        return type.ram() - ramUsed;
+        return type().ram() - ramUsed;
     }
 
     public double availableRam() {
@@ -105,14 +106,15 @@ public class Node extends MongoEntity {
     }
 
     public List<Server> servers() {
-        return MineCloud.instance().mongo().repositoryBy(Server.class).models()
-                .stream()
-                .filter((server) -> server.node().equals(this))
-                .collect(Collectors.toList());
+        return MineCloud.instance().mongo()
+                .repositoryBy(Server.class)
+                .findAll(Criteria.create(Server.class).references("node", this));
     }
 
     public int serverCount() {
-        return servers().size();
+        return (int) MineCloud.instance().mongo()
+                .repositoryBy(Server.class)
+                .count(Criteria.create(Server.class).references("node", this));
     }
 
     public void setName(String name) {
@@ -20,6 +20,9 @@ import io.minecloud.models.network.Network;
 import io.minecloud.models.nodes.type.NodeType;
 import org.mongodb.morphia.Datastore;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class NodeRepository extends AbstractMongoRepository<Node> {
     private NodeRepository(Datastore datastore) {
         super(Node.class, datastore);
@@ -34,14 +37,23 @@ public class NodeRepository extends AbstractMongoRepository<Node> {
     }
 
     public Node findNode(Network network, NodeType preferredNode, int requiredRam) {
+        return findNode(network, preferredNode, requiredRam, Collections.emptyMap());
+    }
+
+    /**
+     * @param reservedRam Ram per node name promised to deployments which the node has not recorded yet
+     */
+    public Node findNode(Network network, NodeType preferredNode, int requiredRam, Map<String, Integer> reservedRam) {
         Node selectedNode = null;
+        double selectedNodeAllocated = 0;
 
         for (Node node : network.nodes()) {
-            double nodeAllocated = node.allocatedRam();
-            double selectedNodeAllocated = selectedNode == null ? 0 : selectedNode.allocatedRam();
+            int reserved = reservedRam.getOrDefault(node.name(), 0);
+            double nodeAllocated = node.allocatedRam() - reserved;
 
-            if (selectedNode == null && node.availableRam() >= requiredRam) {
+            if (selectedNode == null && node.availableRam() - reserved >= requiredRam) {
                 selectedNode = node;
+                selectedNodeAllocated = nodeAllocated;
                 continue;
             }
 
@@ -56,21 +68,24 @@ public class NodeRepository extends AbstractMongoRepository<Node> {
 
                 if (usageDifference > 0) {
                     selectedNode = node;
+                    selectedNodeAllocated = nodeAllocated;
                 } else if (ramDifference >= (requiredRam * 1.5) ||
                         (usageDifference >= -125 && isPreferredNode(node, selectedNode, preferredNode))) {
                     selectedNode = node;
+                    selectedNodeAllocated = nodeAllocated;
                 }
-            } else if (ramDifference >= -nodeMemoryThreshold(node) &&
+            } else if (ramDifference >= -nodeMemoryThreshold(node, reserved) &&
                     isPreferredNode(node, selectedNode, preferredNode)) {
                 selectedNode = node;
+                selectedNodeAllocated = nodeAllocated;
             }
         }
 
         return selectedNode;
     }
 
-    private double nodeMemoryThreshold(Node node) {
-        return (node.availableRam() / (node.serverCount() + 1));
+    private double nodeMemoryThreshold(Node node, int reserved) {
+        return ((node.availableRam() - reserved) / (node.serverCount() + 1));
     }
 
     private boolean isPreferredNode(Node node, Node currentNode, NodeType preferred) {
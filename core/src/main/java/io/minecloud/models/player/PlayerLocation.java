@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.player;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where a player currently is, as recorded in the player location index. Either side
+ * may be unknown while the player is switching or before the first report arrives.
+ */
+public final class PlayerLocation {
+    private final UUID id;
+    private final String name;
+    private final String server;
+    private final String proxy;
+
+    private PlayerLocation(UUID id, String name, String server, String proxy) {
+        this.id = id;
+        this.name = name;
+        this.server = server;
+        this.proxy = proxy;
+    }
+
+    static PlayerLocation fromHash(UUID id, Map<String, String> hash) {
+        if (hash == null || hash.isEmpty()) {
+            return null;
+        }
+
+        return new PlayerLocation(id, hash.get("name"), hash.get("server"), hash.get("proxy"));
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return The id of the server the player is on, or null if it is not known
+     */
+    public String server() {
+        return server;
+    }
+
+    /**
+     * @return The id of the bungee the player is connected through, or null if it is not known
+     */
+    public String proxy() {
+        return proxy;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.player;
+
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.backend.RedisConnection;
+import io.minecloud.db.redis.backend.RedisWriter;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Index of where every online player is, kept in Redis so "where is player X" is a
+ * single hash read instead of a scan over every server's player list.
+ *
+ * Each player has a hash of name, server and proxy keyed by uuid, plus a hash mapping
+ * the lower-cased name back to the uuid. Servers report their players on join and on
+ * every stats run, which also renews the expiry, so entries of a crashed server or
+ * bungee disappear on their own.
+ */
+public final class PlayerLocationStore {
+    // a few times the servers' 10s stats interval, which renews the entries
+    public static final int TTL_SECONDS = 60;
+
+    private final RedisDatabase redis;
+
+    private PlayerLocationStore(RedisDatabase redis) {
+        this.redis = redis;
+    }
+
+    public static PlayerLocationStore create(RedisDatabase redis) {
+        return new PlayerLocationStore(redis);
+    }
+
+    public static String keyOf(UUID id) {
+        return "player:" + id;
+    }
+
+    public static String nameKeyOf(String name) {
+        return "player-name:" + name.toLowerCase();
+    }
+
+    public void joinedServer(PlayerData player, String server) {
+        try (RedisConnection connection = redis.connection()) {
+            connection.pipelined((writer) -> locate(writer, player, "server", server));
+        }
+    }
+
+    /**
+     * Forgets the server of a player unless another server has already claimed them,
+     * which happens when the join on the next server is seen before the quit.
+     */
+    public void leftServer(UUID id, String server) {
+        String key = keyOf(id);
+
+        try (RedisConnection connection = redis.connection()) {
+            if (server.equals(connection.hget(key, "server"))) {
+                connection.hdel(key, "server");
+            }
+        }
+    }
+
+    public void joinedProxy(PlayerData player, String proxy) {
+        try (RedisConnection connection = redis.connection()) {
+            connection.pipelined((writer) -> locate(writer, player, "proxy", proxy));
+        }
+    }
+
+    public void leftProxy(UUID id, String name) {
+        try (RedisConnection connection = redis.connection()) {
+            connection.pipelined((writer) -> {
+                writer.del(keyOf(id));
+                writer.del(nameKeyOf(name));
+            });
+        }
+    }
+
+    /**
+     * Re-reports every player of a server, renewing their entries and repairing any
+     * location lost to a race between a quit and a join.
+     */
+    public void refresh(String server, Collection<PlayerData> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        try (RedisConnection connection = redis.connection()) {
+            connection.pipelined((writer) -> players.forEach((player) -> locate(writer, player, "server", server)));
+        }
+    }
+
+    public PlayerLocation locationOf(UUID id) {
+        try (RedisConnection connection = redis.connection()) {
+            return PlayerLocation.fromHash(id, connection.hgetAll(keyOf(id)));
+        }
+    }
+
+    public PlayerLocation locationOf(String name) {
+        try (RedisConnection connection = redis.connection()) {
+            String id = connection.hget(nameKeyOf(name), "id");
+
+            if (id == null) {
+                return null;
+            }
+
+            UUID uuid = UUID.fromString(id);
+
+            return PlayerLocation.fromHash(uuid, connection.hgetAll(keyOf(uuid)));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static void locate(RedisWriter writer, PlayerData player, String field, String value) {
+        String key = keyOf(UUID.fromString(player.uuid()));
+        String nameKey = nameKeyOf(player.name());
+        Map<String, String> hash = new HashMap<>();
+
+        hash.put("name", player.name());
+        hash.put(field, value);
+
+        writer.hmset(key, hash);
+        writer.expire(key, TTL_SECONDS);
+        writer.hset(nameKey, "id", player.uuid());
+        writer.expire(nameKey, TTL_SECONDS);
+    }
+}
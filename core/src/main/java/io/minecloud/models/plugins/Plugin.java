@@ -15,6 +15,7 @@
  */
 package io.minecloud.models.plugins;
 
+import io.minecloud.db.mongo.ConfigCache;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Setter;
@@ -34,7 +35,7 @@ public class Plugin {
     }
 
     public PluginType type() {
-        return type;
+        return ConfigCache.cached(type);
     }
 
     public String version() {
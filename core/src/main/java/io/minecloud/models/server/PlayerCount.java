@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.server;
+
+import java.util.Collection;
+
+/**
+ * Players and servers online for one server type, computed by the database instead of
+ * loading every server's player list. Pending servers have been deployed but not started yet.
+ */
+public final class PlayerCount {
+    private final String network;
+    private final String type;
+    private final int servers;
+    private final int pending;
+    private final int players;
+
+    private PlayerCount(String network, String type, int servers, int pending, int players) {
+        this.network = network;
+        this.type = type;
+        this.servers = servers;
+        this.pending = pending;
+        this.players = players;
+    }
+
+    public static PlayerCount create(String network, String type, int servers, int pending, int players) {
+        return new PlayerCount(network, type, servers, pending, players);
+    }
+
+    public static PlayerCount create(String type, int servers, int players) {
+        return create(null, type, servers, 0, players);
+    }
+
+    public static int totalPlayers(Collection<PlayerCount> counts) {
+        return counts.stream().mapToInt(PlayerCount::players).sum();
+    }
+
+    /**
+     * @return The network these servers run on, or null if the count was not grouped by network
+     */
+    public String network() {
+        return network;
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public int servers() {
+        return servers;
+    }
+
+    public int pending() {
+        return pending;
+    }
+
+    public int players() {
+        return players;
+    }
+}
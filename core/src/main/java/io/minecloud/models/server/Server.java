@@ -16,10 +16,12 @@
 package io.minecloud.models.server;
 
 import io.minecloud.MineCloud;
-import io.minecloud.MineCloudException;
+import io.minecloud.db.mongo.ConfigCache;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.db.redis.RedisDatabase;
-import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+import io.minecloud.db.redis.msg.cluster.Teleport;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
 import io.minecloud.models.network.Network;
 import io.minecloud.models.nodes.Node;
@@ -28,9 +30,11 @@ import io.minecloud.models.server.type.ServerType;
 import lombok.EqualsAndHashCode;
 import lombok.Setter;
 import org.mongodb.morphia.annotations.Entity;
+import org.mongodb.morphia.annotations.Field;
+import org.mongodb.morphia.annotations.Index;
+import org.mongodb.morphia.annotations.Indexes;
 import org.mongodb.morphia.annotations.Reference;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +46,14 @@ import java.util.UUID;
  * Any inconsistent changes made to this class will be ignored.
  */
 @Entity(value = "servers", noClassnameStored = true)
+@Indexes({
+        @Index(fields = {@Field("network"), @Field("type")}),
+        @Index(fields = {@Field("type"), @Field("number")}),
+        @Index(fields = {@Field("node"), @Field("port")}),
+        @Index(fields = @Field("onlinePlayers.id")),
+        @Index(fields = @Field("onlinePlayers.name")),
+        @Index(fields = @Field("containerId"))
+})
 public class Server extends MongoEntity {
     @Reference(lazy = true)
     @Setter
@@ -70,15 +82,15 @@ public class Server extends MongoEntity {
     private long startTime = Long.MAX_VALUE;
 
     public Network network() {
-        return network;
+        return MongoSession.attached(network);
     }
 
     public ServerType type() {
-        return type;
+        return ConfigCache.cached(type);
     }
 
     public Node node() {
-        return node;
+        return MongoSession.attached(node);
     }
 
     public long startTime() {
@@ -137,6 +149,15 @@ public class Server extends MongoEntity {
         return entityId();
     }
 
+    void applyStatus(ServerStatus status) {
+        if (status == null) {
+            return;
+        }
+
+        ramUsage = status.ramUsage();
+        tps = status.tps();
+    }
+
     public List<ServerMetadata> metadata() {
         if (metadata == null) {
             metadata = new ArrayList<>();
@@ -167,15 +188,6 @@ public class Server extends MongoEntity {
             redis.addChannel(SimpleRedisChannel.create("teleport", redis));
         }
 
-        MessageOutputStream mos = new MessageOutputStream();
-
-        try {
-            mos.writeString(player);
-            mos.writeString(name());
-        } catch (IOException ex) {
-            throw new MineCloudException("Could not encode teleport message", ex);
-        }
-
-        redis.channelBy("teleport").publish(mos.toMessage());
+        redis.channelBy("teleport").publish(MessageRegistry.encode(new Teleport(player, name())));
     }
 }
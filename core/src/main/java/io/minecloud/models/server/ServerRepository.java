@@ -16,17 +16,32 @@
 package io.minecloud.models.server;
 
 import com.mongodb.BasicDBObject;
+import com.mongodb.DBObject;
+import io.minecloud.MineCloud;
 import io.minecloud.db.mongo.AbstractMongoRepository;
+import io.minecloud.db.redis.RedisDatabase;
 import io.minecloud.models.network.Network;
 import io.minecloud.models.player.PlayerData;
+import io.minecloud.models.player.PlayerLocation;
+import io.minecloud.models.player.PlayerLocationStore;
 import io.minecloud.models.server.type.ServerType;
 import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.query.Query;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public class ServerRepository extends AbstractMongoRepository<Server> {
+    private static final DBObject PLAYER_COUNT = new BasicDBObject("$size",
+            new BasicDBObject("$ifNull", Arrays.asList("$onlinePlayers", Collections.emptyList())));
+    private static final DBObject PENDING = new BasicDBObject("$cond",
+            Arrays.asList(new BasicDBObject("$eq", Arrays.asList("$ramUsage", -1)), 1, 0));
+
     private ServerRepository(Datastore datastore) {
         super(Server.class, datastore);
     }
@@ -36,16 +51,20 @@ public class ServerRepository extends AbstractMongoRepository<Server> {
     }
 
     public int nextNumberFor(ServerType type) {
-        List<Server> servers = find(createQuery().filter("type", type)).asList();
+        Query<Server> query = createQuery().filter("type", type).order("number");
         int lastNumber = 0;
 
-        Collections.sort(servers, (s1, s2) -> s1.number() - s2.number());
+        try (Stream<Server> servers = stream(query, DEFAULT_BATCH_SIZE, "number")) {
+            Iterator<Server> iterator = servers.iterator();
+
+            while (iterator.hasNext()) {
+                Server server = iterator.next();
 
-        for (Server server : servers) {
-            if (lastNumber != (server.number() - 1))
-                return server.number() - 1;
+                if (lastNumber != (server.number() - 1))
+                    return server.number() - 1;
 
-            lastNumber = server.number();
+                lastNumber = server.number();
+            }
         }
 
         return lastNumber + 1;
@@ -68,13 +87,102 @@ public class ServerRepository extends AbstractMongoRepository<Server> {
                 .asList();
     }
 
+    /**
+     * Players are looked up in the Redis location index when it is available. When Redis is
+     * unavailable or the index has no server for the player, which happens while the index is
+     * still being repopulated or a report was lost, the embedded player lists are matched instead.
+     */
     public Server serverFor(UUID id) {
+        RedisDatabase redis = MineCloud.instance().redis();
+
+        if (redis != null) {
+            Server server = serverAt(PlayerLocationStore.create(redis).locationOf(id));
+
+            if (server != null) {
+                return server;
+            }
+        }
+
         return find(createQuery().field("onlinePlayers").hasThisElement(new BasicDBObject("id", id.toString())))
                 .get();
     }
 
     public Server serverFor(String name) {
+        RedisDatabase redis = MineCloud.instance().redis();
+
+        if (redis != null) {
+            Server server = serverAt(PlayerLocationStore.create(redis).locationOf(name));
+
+            if (server != null) {
+                return server;
+            }
+        }
+
         return find(createQuery().field("onlinePlayers").hasThisElement(new BasicDBObject("name", name)))
                 .get();
     }
+
+    private Server serverAt(PlayerLocation location) {
+        return location == null || location.server() == null ? null : findFirst(location.server());
+    }
+
+    /**
+     * Counts servers and players per server type among the servers matching the query,
+     * without loading any player data.
+     */
+    public List<PlayerCount> playerCounts(Query<Server> query) {
+        return countsBy(query.getQueryObject(), new BasicDBObject("type", "$type"));
+    }
+
+    /**
+     * Counts servers, pending servers and players for every network and server type
+     * in a single aggregation.
+     */
+    public List<PlayerCount> playerCountsByNetwork() {
+        return countsBy(new BasicDBObject(), new BasicDBObject("network", "$network").append("type", "$type"));
+    }
+
+    private List<PlayerCount> countsBy(DBObject filter, DBObject group) {
+        List<PlayerCount> counts = new ArrayList<>();
+
+        aggregate(new BasicDBObject("$match", filter),
+                new BasicDBObject("$group", new BasicDBObject("_id", group)
+                        .append("servers", new BasicDBObject("$sum", 1))
+                        .append("pending", new BasicDBObject("$sum", PENDING))
+                        .append("players", new BasicDBObject("$sum", PLAYER_COUNT))))
+                .forEach((result) -> {
+                    DBObject id = (DBObject) result.get("_id");
+
+                    counts.add(PlayerCount.create(referencedId(id.get("network")),
+                            referencedId(id.get("type")),
+                            ((Number) result.get("servers")).intValue(),
+                            ((Number) result.get("pending")).intValue(),
+                            ((Number) result.get("players")).intValue()));
+                });
+
+        return counts;
+    }
+
+    public List<PlayerCount> playerCounts(Network network) {
+        return playerCounts(createQuery().field("network").equal(network));
+    }
+
+    public int playerCount(Network network, ServerType type) {
+        return PlayerCount.totalPlayers(playerCounts(createQuery()
+                .field("network").equal(network)
+                .field("type").equal(type)));
+    }
+
+    /**
+     * Finds the server with the fewest players among the servers matching the query
+     * @return The name of the server, or null if none matched
+     */
+    public String leastPopulated(Query<Server> query) {
+        List<DBObject> results = aggregate(new BasicDBObject("$match", query.getQueryObject()),
+                new BasicDBObject("$project", new BasicDBObject("players", PLAYER_COUNT)),
+                new BasicDBObject("$sort", new BasicDBObject("players", 1)),
+                new BasicDBObject("$limit", 1));
+
+        return results.isEmpty() ? null : (String) results.get(0).get("_id");
+    }
 }
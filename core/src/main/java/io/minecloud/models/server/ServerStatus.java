@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Volatile runtime state reported by a server every few seconds. This lives in Redis
+ * with a TTL rather than in the server's Mongo document.
+ */
+public final class ServerStatus {
+    private final int ramUsage;
+    private final double tps;
+    private final int players;
+    private final long heartbeat;
+
+    private ServerStatus(int ramUsage, double tps, int players, long heartbeat) {
+        this.ramUsage = ramUsage;
+        this.tps = tps;
+        this.players = players;
+        this.heartbeat = heartbeat;
+    }
+
+    public static ServerStatus create(int ramUsage, double tps, int players) {
+        return new ServerStatus(ramUsage, tps, players, System.currentTimeMillis());
+    }
+
+    static ServerStatus fromHash(Map<String, String> hash) {
+        if (hash == null || !hash.containsKey("heartbeat")) {
+            return null;
+        }
+
+        try {
+            return new ServerStatus(Integer.parseInt(hash.getOrDefault("ram", "0")),
+                    Double.parseDouble(hash.getOrDefault("tps", "20")),
+                    Integer.parseInt(hash.getOrDefault("players", "0")),
+                    Long.parseLong(hash.get("heartbeat")));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    Map<String, String> toHash() {
+        Map<String, String> hash = new HashMap<>();
+
+        hash.put("ram", String.valueOf(ramUsage));
+        hash.put("tps", String.valueOf(tps));
+        hash.put("players", String.valueOf(players));
+        hash.put("heartbeat", String.valueOf(heartbeat));
+
+        return hash;
+    }
+
+    public int ramUsage() {
+        return ramUsage;
+    }
+
+    public double tps() {
+        return tps;
+    }
+
+    public int players() {
+        return players;
+    }
+
+    public long heartbeat() {
+        return heartbeat;
+    }
+
+    public long age() {
+        return System.currentTimeMillis() - heartbeat;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.models.server;
+
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.backend.RedisConnection;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Live server status kept in a Redis hash per server, which expires unless the server keeps
+ * publishing it.
+ */
+public final class ServerStatusStore {
+    // outlives the daemons' 35s dead-server threshold so a hung server is still seen as stale
+    public static final int TTL_SECONDS = 60;
+
+    private final RedisDatabase redis;
+
+    private ServerStatusStore(RedisDatabase redis) {
+        this.redis = redis;
+    }
+
+    public static ServerStatusStore create(RedisDatabase redis) {
+        return new ServerStatusStore(redis);
+    }
+
+    public static String keyOf(String server) {
+        return "server:" + server;
+    }
+
+    public void publish(String server, ServerStatus status) {
+        String key = keyOf(server);
+
+        try (RedisConnection connection = redis.connection()) {
+            connection.pipelined((writer) -> {
+                writer.hmset(key, status.toHash());
+                writer.expire(key, TTL_SECONDS);
+            });
+        }
+    }
+
+    public ServerStatus statusOf(String server) {
+        try (RedisConnection connection = redis.connection()) {
+            return ServerStatus.fromHash(connection.hgetAll(keyOf(server)));
+        }
+    }
+
+    public Map<String, ServerStatus> statusOf(Collection<Server> servers) {
+        Map<String, ServerStatus> statuses = new HashMap<>();
+
+        if (servers.isEmpty()) {
+            return statuses;
+        }
+
+        List<String> ids = servers.stream().map(Server::entityId).collect(Collectors.toList());
+        List<Map<String, String>> hashes;
+
+        try (RedisConnection connection = redis.connection()) {
+            hashes = connection.hgetAll(ids.stream().map(ServerStatusStore::keyOf).collect(Collectors.toList()));
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            ServerStatus status = ServerStatus.fromHash(hashes.get(i));
+
+            if (status != null) {
+                statuses.put(ids.get(i), status);
+            }
+        }
+
+        return statuses;
+    }
+
+    /**
+     * Overlays the live status onto servers loaded from Mongo, whose ram usage and tps
+     * are only persisted every few minutes. Servers without a live status are left as-is.
+     */
+    public <C extends Collection<Server>> C merge(C servers) {
+        Map<String, ServerStatus> statuses = statusOf(servers);
+
+        servers.forEach((server) -> server.applyStatus(statuses.get(server.entityId())));
+        return servers;
+    }
+
+    public Server merge(Server server) {
+        if (server != null) {
+            server.applyStatus(statusOf(server.entityId()));
+        }
+
+        return server;
+    }
+
+    public void clear(String server) {
+        try (RedisConnection connection = redis.connection()) {
+            connection.del(keyOf(server));
+        }
+    }
+}
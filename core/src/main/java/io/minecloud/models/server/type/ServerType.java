@@ -16,10 +16,11 @@
 package io.minecloud.models.server.type;
 
 import io.minecloud.MineCloud;
-import io.minecloud.MineCloudException;
+import io.minecloud.db.mongo.ConfigCache;
 import io.minecloud.db.mongo.model.MongoEntity;
 import io.minecloud.db.redis.RedisDatabase;
-import io.minecloud.db.redis.msg.binary.MessageOutputStream;
+import io.minecloud.db.redis.msg.cluster.TeleportType;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
 import io.minecloud.models.nodes.type.NodeType;
 import io.minecloud.models.plugins.Plugin;
@@ -30,7 +31,6 @@ import org.mongodb.morphia.annotations.Entity;
 import org.mongodb.morphia.annotations.Property;
 import org.mongodb.morphia.annotations.Reference;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -65,7 +65,7 @@ public class ServerType extends MongoEntity {
     }
 
     public NodeType preferredNode() {
-        return preferredNode;
+        return ConfigCache.cached(preferredNode);
     }
 
     public String mod() {
@@ -115,15 +115,6 @@ public class ServerType extends MongoEntity {
             redis.addChannel(SimpleRedisChannel.create("teleport-type", redis));
         }
 
-        MessageOutputStream mos = new MessageOutputStream();
-
-        try {
-            mos.writeString(player);
-            mos.writeString(name());
-        } catch (IOException ex) {
-            throw new MineCloudException("Could not encode teleport message", ex);
-        }
-
-        redis.channelBy("teleport-type").publish(mos.toMessage());
+        redis.channelBy("teleport-type").publish(MessageRegistry.encode(new TeleportType(player, name())));
     }
 }
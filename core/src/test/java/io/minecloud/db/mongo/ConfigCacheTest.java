@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.mongo;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
+import io.minecloud.db.Credentials;
+import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.msg.cluster.ConfigChanged;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.models.server.type.ServerType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Morphia;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ConfigCacheTest {
+    private MongoClient client;
+    private CountingRepository repository;
+    private ConfigCache cache;
+    private RedisDatabase redis;
+
+    @Before
+    public void setup() {
+        // never connected to, the repository below serves every lookup
+        client = new MongoClient(new ServerAddress("localhost", 1),
+                MongoClientOptions.builder().serverSelectionTimeout(0).build());
+
+        Datastore datastore = new Morphia().createDatastore(client, "config-cache-test");
+        MongoDatabase mongo = MongoDatabase.createDatabase(new Credentials(new String[0], "", new char[0]));
+
+        repository = new CountingRepository(datastore);
+        mongo.loadRepository(repository, ServerType.class);
+
+        cache = mongo.configCache();
+        cache.register(ServerType.class);
+
+        redis = RedisDatabase.create(new Credentials(new String[] {"mem://config-cache-test"}, "", new char[0]));
+        redis.setup();
+        cache.listen(redis);
+    }
+
+    @After
+    public void tearDown() {
+        redis.removeChannel(ConfigCache.CHANNEL);
+        client.close();
+    }
+
+    @Test
+    public void entriesAreCached() {
+        ServerType first = cache.get(ServerType.class, "lobby");
+
+        assertSame(first, cache.get(ServerType.class, "lobby"));
+        assertEquals(1, repository.loads.get());
+    }
+
+    @Test
+    public void configChangedDropsEntries() throws InterruptedException {
+        ServerType stale = cache.get(ServerType.class, "lobby");
+        long version = cache.version(ServerType.class);
+        long deadline = System.currentTimeMillis() + 5000L;
+
+        // the subscription is set up asynchronously, so publish until the change is seen
+        while (cache.version(ServerType.class) == version && System.currentTimeMillis() < deadline) {
+            redis.publish(ConfigCache.CHANNEL, MessageRegistry.encode(
+                    new ConfigChanged(repository.collectionName(), "lobby")));
+            Thread.sleep(50L);
+        }
+
+        ServerType fresh = cache.get(ServerType.class, "lobby");
+
+        assertEquals(2, repository.loads.get());
+        assertEquals("lobby", fresh.entityId());
+        assertNotSame(stale, fresh);
+    }
+
+    @Test
+    public void otherCollectionsAreIgnored() {
+        cache.get(ServerType.class, "lobby");
+        cache.invalidate("bungee-types");
+        cache.get(ServerType.class, "lobby");
+
+        assertEquals(1, repository.loads.get());
+    }
+
+    @Test
+    public void invalidateAllDropsEntries() {
+        cache.get(ServerType.class, "lobby");
+        cache.invalidateAll();
+        cache.get(ServerType.class, "lobby");
+
+        assertEquals(2, repository.loads.get());
+    }
+
+    private static final class CountingRepository extends AbstractMongoRepository<ServerType> {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        private CountingRepository(Datastore datastore) {
+            super(ServerType.class, datastore);
+        }
+
+        @Override
+        public ServerType findFirst(String id) {
+            ServerType type = new ServerType();
+
+            type.setId(id);
+            loads.incrementAndGet();
+            return type;
+        }
+    }
+}
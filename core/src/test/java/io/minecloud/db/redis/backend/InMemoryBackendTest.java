@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryBackendTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] SOURCE = bytes("source");
+    private static final byte[] DESTINATION = bytes("destination");
+
+    private InMemoryBackend backend;
+    private RedisConnection connection;
+
+    @Before
+    public void setUp() {
+        // a fresh name per test, backends of the same name share their data
+        backend = InMemoryBackend.create("backend-test-" + UUID.randomUUID());
+        connection = backend.connection();
+    }
+
+    @After
+    public void tearDown() {
+        connection.close();
+        backend.close();
+    }
+
+    @Test
+    public void rpoplpushMovesTheOldestElement() {
+        connection.lpush(SOURCE, bytes("a"), bytes("b"));
+
+        assertEquals(2, connection.llen(SOURCE));
+        assertEquals("a", string(connection.rpoplpush(SOURCE, DESTINATION)));
+        assertEquals("b", string(connection.rpoplpush(SOURCE, DESTINATION)));
+        assertEquals(0, connection.llen(SOURCE));
+        assertEquals(2, connection.llen(DESTINATION));
+        assertFalse(connection.exists("source"));
+    }
+
+    @Test
+    public void rpoplpushOnEmptyListReturnsNull() {
+        assertNull(connection.rpoplpush(SOURCE, DESTINATION));
+
+        connection.lpush(SOURCE);
+        assertNull(connection.rpoplpush(SOURCE, DESTINATION));
+
+        connection.lpush(SOURCE, bytes("a"));
+        connection.lrem(SOURCE, 0, bytes("a"));
+        assertNull(connection.rpoplpush(SOURCE, DESTINATION));
+
+        assertFalse(connection.exists("source"));
+        assertFalse(connection.exists("destination"));
+    }
+
+    @Test
+    public void rpoplpushRotatesASingleList() {
+        connection.lpush(SOURCE, bytes("a"), bytes("b"));
+
+        assertEquals("a", string(connection.rpoplpush(SOURCE, SOURCE)));
+        assertEquals("b", string(connection.rpoplpush(SOURCE, SOURCE)));
+        assertEquals("a", string(connection.rpoplpush(SOURCE, SOURCE)));
+        assertEquals(2, connection.llen(SOURCE));
+    }
+
+    @Test
+    public void lremHonoursCountAndDirection() {
+        connection.lpush(SOURCE, bytes("x"), bytes("a"), bytes("x"), bytes("b"), bytes("x"));
+
+        // head to tail: x b x a x
+        connection.lrem(SOURCE, 1, bytes("x"));
+        assertEquals(4, connection.llen(SOURCE));
+        assertEquals("x", string(connection.rpoplpush(SOURCE, SOURCE)));
+
+        // x b x a
+        connection.lrem(SOURCE, -1, bytes("x"));
+        assertEquals("a", string(connection.rpoplpush(SOURCE, SOURCE)));
+
+        // a x b
+        connection.lrem(SOURCE, 0, bytes("x"));
+        assertEquals(2, connection.llen(SOURCE));
+        assertEquals("b", string(connection.rpoplpush(SOURCE, DESTINATION)));
+        assertEquals("a", string(connection.rpoplpush(SOURCE, DESTINATION)));
+    }
+
+    @Test
+    public void brpoplpushTimesOutOnEmptyList() {
+        long start = System.nanoTime();
+
+        assertNull(connection.brpoplpush(SOURCE, DESTINATION, 1));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    public void brpoplpushWakesUpOnPush() throws InterruptedException {
+        BlockingQueue<byte[]> moved = new LinkedBlockingQueue<>();
+        Thread consumer = new Thread(() -> {
+            try (RedisConnection blocking = backend.dedicatedConnection(0)) {
+                moved.add(blocking.brpoplpush(SOURCE, DESTINATION, 5));
+            }
+        });
+
+        consumer.start();
+        Thread.sleep(100);
+        connection.lpush(SOURCE, bytes("a"));
+
+        assertEquals("a", string(moved.poll(2, TimeUnit.SECONDS)));
+        assertEquals(1, connection.llen(DESTINATION));
+        consumer.join(1000);
+    }
+
+    @Test
+    public void hashesKeepTheirFields() {
+        Map<String, String> fields = new HashMap<>();
+
+        fields.put("b", "2");
+        fields.put("c", "3");
+
+        connection.hset("hash", "a", "1");
+        connection.hmset("hash", fields);
+        connection.hset("hash", "a", "4");
+
+        assertEquals("4", connection.hget("hash", "a"));
+        assertNull(connection.hget("hash", "d"));
+        assertNull(connection.hget("missing", "a"));
+        assertEquals(3, connection.hgetAll("hash").size());
+        assertEquals(Collections.emptyMap(), connection.hgetAll("missing"));
+
+        List<Map<String, String>> hashes = connection.hgetAll(Arrays.asList("missing", "hash"));
+
+        assertEquals(Collections.emptyMap(), hashes.get(0));
+        assertEquals("2", hashes.get(1).get("b"));
+    }
+
+    @Test
+    public void hdelOfTheLastFieldDeletesTheHash() {
+        connection.hset("hash", "a", "1");
+        connection.hset("hash", "b", "2");
+
+        connection.hdel("hash", "a");
+        assertTrue(connection.exists("hash"));
+
+        connection.hdel("hash", "b");
+        assertFalse(connection.exists("hash"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void listCommandsRejectHashes() {
+        connection.hset("source", "a", "1");
+        connection.llen(SOURCE);
+    }
+
+    @Test
+    public void ttlReportsMissingAndPersistentKeys() {
+        assertEquals(-2, connection.ttl("hash"));
+
+        connection.hset("hash", "a", "1");
+        assertEquals(-1, connection.ttl("hash"));
+
+        connection.expire("hash", 60);
+        assertTrue(connection.ttl("hash") > 55 && connection.ttl("hash") <= 60);
+
+        connection.expire("missing", 60);
+        assertEquals(-2, connection.ttl("missing"));
+    }
+
+    @Test
+    public void expiredKeysAreGone() throws InterruptedException {
+        connection.hset("hash", "a", "1");
+        connection.expire("hash", 1);
+        Thread.sleep(1100);
+
+        assertFalse(connection.exists("hash"));
+        assertNull(connection.hget("hash", "a"));
+        assertEquals(-2, connection.ttl("hash"));
+    }
+
+    @Test
+    public void delDropsTheExpiry() {
+        connection.hset("hash", "a", "1");
+        connection.expire("hash", 60);
+        connection.del("hash");
+        connection.hset("hash", "a", "1");
+
+        assertEquals(-1, connection.ttl("hash"));
+    }
+
+    @Test
+    public void pipelinesAndTransactionsApplyEveryCommand() {
+        connection.pipelined((writer) -> {
+            writer.hset("hash", "a", "1");
+            writer.lpush(SOURCE, bytes("a"));
+            writer.expire("hash", 60);
+        });
+        connection.atomically((writer) -> {
+            writer.hdel("hash", "a");
+            writer.lpush(SOURCE, bytes("b"));
+        });
+
+        assertFalse(connection.exists("hash"));
+        assertEquals(2, connection.llen(SOURCE));
+    }
+
+    @Test
+    public void subscribersReceiveMessagesUntilUnsubscribed() throws InterruptedException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        CountDownLatch subscribed = new CountDownLatch(2);
+        RedisConnection listening = backend.dedicatedConnection(0);
+        Subscription subscription = listening.subscription(new SubscriptionListener() {
+            @Override
+            public void onSubscribe(byte[] channel, int subscribedChannels) {
+                subscribed.countDown();
+            }
+
+            @Override
+            public void onMessage(byte[] channel, byte[] message) {
+                received.add(string(channel) + ":" + string(message));
+            }
+        });
+        Thread listener = new Thread(() -> subscription.listen(bytes("first"), bytes("second")));
+
+        listener.start();
+        assertTrue(subscribed.await(2, TimeUnit.SECONDS));
+        assertTrue(subscription.isSubscribed());
+
+        connection.publish(bytes("first"), bytes("a"));
+        connection.publish(bytes("other"), bytes("b"));
+        connection.publish(bytes("second"), bytes("c"));
+
+        assertEquals("first:a", received.poll(2, TimeUnit.SECONDS));
+        assertEquals("second:c", received.poll(2, TimeUnit.SECONDS));
+
+        subscription.unsubscribe(bytes("first"));
+        connection.publish(bytes("first"), bytes("d"));
+        connection.publish(bytes("second"), bytes("e"));
+
+        assertEquals("second:e", received.poll(2, TimeUnit.SECONDS));
+
+        subscription.unsubscribe();
+        listener.join(2000);
+
+        assertFalse(listener.isAlive());
+        assertFalse(subscription.isSubscribed());
+        assertTrue(received.isEmpty());
+        listening.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, UTF_8);
+    }
+}
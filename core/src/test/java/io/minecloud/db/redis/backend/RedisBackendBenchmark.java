@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.backend;
+
+import io.minecloud.db.Credentials;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the commands MineCloud issues most often against a backend. Defaults to the in-memory
+ * backend, pass {@code -p host=localhost:6379} to compare against a Redis server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisBackendBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] QUEUE = "benchmark-queue".getBytes(UTF_8);
+    private static final byte[] PROCESSING = "benchmark-queue:processing".getBytes(UTF_8);
+    private static final byte[] CHANNEL = "benchmark-channel".getBytes(UTF_8);
+
+    @Param("mem://benchmark")
+    private String host;
+
+    private final Map<String, String> status = new HashMap<>();
+    private final byte[] message = new byte[256];
+    private RedisBackend backend;
+
+    @Setup
+    public void setup() {
+        backend = RedisBackend.create(new Credentials(new String[] {host}, "", new char[0]));
+
+        status.put("online", "12");
+        status.put("tps", "19.97");
+        status.put("ram", "1024");
+    }
+
+    @TearDown
+    public void tearDown() {
+        try (RedisConnection connection = backend.connection()) {
+            connection.del("benchmark-status");
+            connection.del(new String(QUEUE, UTF_8));
+            connection.del(new String(PROCESSING, UTF_8));
+        }
+
+        backend.close();
+    }
+
+    @Benchmark
+    public Map<String, String> statusRoundTrip() {
+        try (RedisConnection connection = backend.connection()) {
+            connection.pipelined((writer) -> {
+                writer.hmset("benchmark-status", status);
+                writer.expire("benchmark-status", 30);
+            });
+
+            return connection.hgetAll("benchmark-status");
+        }
+    }
+
+    @Benchmark
+    public byte[] queueRoundTrip() {
+        try (RedisConnection connection = backend.connection()) {
+            connection.lpush(QUEUE, message);
+
+            byte[] element = connection.rpoplpush(QUEUE, PROCESSING);
+
+            connection.lrem(PROCESSING, 1, element);
+            return element;
+        }
+    }
+
+    @Benchmark
+    public void publish() {
+        try (RedisConnection connection = backend.connection()) {
+            connection.publish(CHANNEL, message);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RedisBackendBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.binary;
+
+import io.minecloud.db.redis.msg.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding of a typical server status message. Not picked up by surefire,
+ * run it with {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+    private final MessageOutputStream reused = new MessageOutputStream(128);
+    private UUID id;
+    private Message encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        id = UUID.randomUUID();
+        encoded = encode(new MessageOutputStream());
+    }
+
+    @Benchmark
+    public Message encodeFresh() throws IOException {
+        return encode(new MessageOutputStream());
+    }
+
+    @Benchmark
+    public Message encodeReused() throws IOException {
+        reused.reset();
+        return encode(reused);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException {
+        MessageInputStream is = encoded.contents();
+
+        blackhole.consume(is.readUuid());
+        blackhole.consume(is.readString());
+        blackhole.consume(is.readString());
+        blackhole.consume(is.readZigZag32());
+        blackhole.consume(is.readVarInt32());
+        blackhole.consume(is.readVarInt64());
+        blackhole.consume(is.readDouble());
+        blackhole.consume(is.readBoolean());
+    }
+
+    private Message encode(MessageOutputStream os) throws IOException {
+        os.writeUuid(id);
+        os.writeString("lobby-12");
+        os.writeString("192.168.1.20");
+        os.writeZigZag32(25565);
+        os.writeVarInt32(1024);
+        os.writeVarInt64(System.currentTimeMillis());
+        os.writeDouble(19.97D);
+        os.writeBoolean(true);
+
+        return os.toMessage();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
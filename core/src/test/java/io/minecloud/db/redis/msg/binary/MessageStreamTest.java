@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2015, Mazen Kotb <email@mazenmc.io>
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR
+ * ANY SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF
+ * OR IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package io.minecloud.db.redis.msg.binary;
+
+import io.minecloud.db.redis.msg.Message;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MessageStreamTest {
+    private static final int SAMPLES = 10000;
+    private static final int[] INTS = {
+            0, 1, -1, 63, 64, -64, -65, 127, 128, 255, 256, 16383, 16384, 2097151, 2097152,
+            268435455, 268435456, Short.MAX_VALUE, Short.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1
+    };
+    private static final long[] LONGS = {
+            0L, 1L, -1L, 127L, 128L, (1L << 35) - 1, 1L << 35, (1L << 56) - 1, 1L << 56, (1L << 63) - 1,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE + 1L, Integer.MIN_VALUE - 1L,
+            Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1
+    };
+
+    private final Random random = new Random(0x6D696E65L);
+
+    @Test
+    public void varInt32RoundTrips() throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        for (int i : INTS) {
+            os.writeVarInt32(i);
+        }
+
+        MessageInputStream is = new MessageInputStream(os.toByteArray());
+
+        for (int i : INTS) {
+            assertEquals(i, is.readVarInt32());
+        }
+
+        assertEquals(0, is.available());
+
+        for (int n = 0; n < SAMPLES; n++) {
+            int i = random.nextInt();
+
+            assertEquals(i, roundTrip(i, MessageOutputStream::writeVarInt32).readVarInt32());
+        }
+    }
+
+    @Test
+    public void varInt32Lengths() {
+        assertEquals(1, length(0, MessageOutputStream::writeVarInt32));
+        assertEquals(1, length(127, MessageOutputStream::writeVarInt32));
+        assertEquals(2, length(128, MessageOutputStream::writeVarInt32));
+        assertEquals(4, length(268435455, MessageOutputStream::writeVarInt32));
+        assertEquals(5, length(268435456, MessageOutputStream::writeVarInt32));
+        assertEquals(5, length(-1, MessageOutputStream::writeVarInt32));
+    }
+
+    @Test
+    public void varInt64RoundTrips() throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        for (long l : LONGS) {
+            os.writeVarInt64(l);
+        }
+
+        MessageInputStream is = new MessageInputStream(os.toByteArray());
+
+        for (long l : LONGS) {
+            assertEquals(l, is.readVarInt64());
+        }
+
+        assertEquals(0, is.available());
+        assertEquals(10, length(-1L, MessageOutputStream::writeVarInt64));
+
+        for (int n = 0; n < SAMPLES; n++) {
+            long l = random.nextLong() >> random.nextInt(64);
+
+            assertEquals(l, roundTrip(l, MessageOutputStream::writeVarInt64).readVarInt64());
+        }
+    }
+
+    @Test
+    public void zigZagRoundTrips() throws IOException {
+        for (int i : INTS) {
+            assertEquals(i, roundTrip(i, MessageOutputStream::writeZigZag32).readZigZag32());
+            assertEquals(i, roundTrip((long) i, MessageOutputStream::writeZigZag64).readZigZag64());
+        }
+
+        for (long l : LONGS) {
+            assertEquals(l, roundTrip(l, MessageOutputStream::writeZigZag64).readZigZag64());
+        }
+
+        for (int n = 0; n < SAMPLES; n++) {
+            int i = random.nextInt() >> random.nextInt(32);
+            long l = random.nextLong() >> random.nextInt(64);
+
+            assertEquals(i, roundTrip(i, MessageOutputStream::writeZigZag32).readZigZag32());
+            assertEquals(l, roundTrip(l, MessageOutputStream::writeZigZag64).readZigZag64());
+        }
+
+        assertEquals(1, length(-1, MessageOutputStream::writeZigZag32));
+        assertEquals(1, length(-64, MessageOutputStream::writeZigZag32));
+        assertEquals(2, length(-65, MessageOutputStream::writeZigZag32));
+        assertEquals(5, length(Integer.MIN_VALUE, MessageOutputStream::writeZigZag32));
+    }
+
+    @Test
+    public void fixedWidthRoundTrips() throws IOException {
+        for (int i : INTS) {
+            assertEquals(i, roundTrip(i, MessageOutputStream::writeInt).readInt());
+        }
+
+        for (long l : LONGS) {
+            assertEquals(l, roundTrip(l, MessageOutputStream::writeLong).readLong());
+        }
+
+        assertTrue(roundTrip(true, MessageOutputStream::writeBoolean).readBoolean());
+        assertFalse(roundTrip(false, MessageOutputStream::writeBoolean).readBoolean());
+    }
+
+    @Test
+    public void doubleRoundTrips() throws IOException {
+        double[] values = {
+                0D, -0D, 1D, -1D, 0.1D, Math.PI, Double.MIN_VALUE, -Double.MIN_VALUE, Double.MIN_NORMAL,
+                Double.MAX_VALUE, -Double.MAX_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                Double.NaN
+        };
+
+        for (double d : values) {
+            double read = roundTrip(d, MessageOutputStream::writeDouble).readDouble();
+
+            assertEquals(Double.doubleToRawLongBits(d), Double.doubleToRawLongBits(read));
+        }
+
+        for (int n = 0; n < SAMPLES; n++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            double read = roundTrip(d, MessageOutputStream::writeDouble).readDouble();
+
+            assertEquals(Double.doubleToRawLongBits(d), Double.doubleToRawLongBits(read));
+        }
+    }
+
+    @Test
+    public void uuidRoundTrips() throws IOException {
+        UUID[] values = {
+                new UUID(0L, 0L), new UUID(-1L, -1L), new UUID(Long.MIN_VALUE, Long.MAX_VALUE),
+                new UUID(Long.MAX_VALUE, Long.MIN_VALUE)
+        };
+
+        for (UUID id : values) {
+            assertEquals(id, roundTrip(id, MessageOutputStream::writeUuid).readUuid());
+        }
+
+        for (int n = 0; n < SAMPLES; n++) {
+            UUID id = UUID.randomUUID();
+
+            assertEquals(id, roundTrip(id, MessageOutputStream::writeUuid).readUuid());
+        }
+
+        assertEquals(16, length(UUID.randomUUID(), MessageOutputStream::writeUuid));
+    }
+
+    @Test
+    public void stringRoundTrips() throws IOException {
+        String[] values = {
+                "", "minecloud", "caf\u00e9", "\u20ac100", "\u65e5\u672c\u8a9e",
+                "\ud83d\ude00", "a\ud83c\udf0d\ud83d\ude80z", new String(Character.toChars(Character.MAX_CODE_POINT)),
+                new String(Character.toChars(Character.MIN_SUPPLEMENTARY_CODE_POINT))
+        };
+
+        for (String s : values) {
+            assertString(s);
+        }
+
+        for (int n = 0; n < SAMPLES / 10; n++) {
+            StringBuilder builder = new StringBuilder();
+            int length = random.nextInt(64);
+
+            while (builder.length() < length) {
+                int codePoint = random.nextInt(Character.MAX_CODE_POINT + 1);
+
+                if (!Character.isSurrogate((char) codePoint) || Character.isSupplementaryCodePoint(codePoint)) {
+                    builder.appendCodePoint(codePoint);
+                }
+            }
+
+            assertString(builder.toString());
+        }
+    }
+
+    @Test
+    public void unpairedSurrogatesAreReplaced() throws IOException {
+        String s = "a\ud83db\ude00";
+
+        assertEquals(new String(s.getBytes("UTF-8"), "UTF-8"),
+                roundTrip(s, MessageOutputStream::writeString).readString());
+    }
+
+    @Test
+    public void messageRoundTrips() throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        os.writeString("inner");
+        os.writeZigZag32(-42);
+
+        Message inner = os.toMessage();
+        MessageOutputStream outer = new MessageOutputStream();
+
+        outer.writeMessage(inner);
+        outer.writeBoolean(true);
+
+        MessageInputStream is = outer.toMessage().contents();
+        MessageInputStream contents = is.readMessage().contents();
+
+        assertEquals("inner", contents.readString());
+        assertEquals(-42, contents.readZigZag32());
+        assertTrue(is.readBoolean());
+    }
+
+    @Test
+    public void resetReusesStream() throws IOException {
+        MessageOutputStream os = new MessageOutputStream(4);
+
+        os.writeInt(1);
+
+        Message first = os.toMessage();
+
+        os.reset();
+        os.writeInt(2);
+
+        assertEquals(1, first.contents().readInt());
+        assertEquals(2, os.toMessage().contents().readInt());
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedVarIntThrowsEof() throws IOException {
+        new MessageInputStream(new byte[] {(byte) 0x80, (byte) 0x80}).readVarInt32();
+    }
+
+    @Test(expected = EOFException.class)
+    public void emptyBooleanThrowsEof() throws IOException {
+        new MessageInputStream(new byte[0]).readBoolean();
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedLongThrowsEof() throws IOException {
+        new MessageInputStream(new byte[7]).readLong();
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedStringThrowsEof() throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        os.writeVarInt32(10);
+        os.write('a');
+
+        new MessageInputStream(os.toByteArray()).readString();
+    }
+
+    private void assertString(String s) throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        os.writeString(s);
+
+        byte[] expected = s.getBytes("UTF-8");
+        MessageInputStream is = new MessageInputStream(os.toByteArray());
+
+        assertEquals(expected.length, is.readVarInt32());
+        assertEquals(s, roundTrip(s, MessageOutputStream::writeString).readString());
+    }
+
+    private static <T> MessageInputStream roundTrip(T value, Writer<T> writer) throws IOException {
+        MessageOutputStream os = new MessageOutputStream();
+
+        writer.write(os, value);
+        return os.toMessage().contents();
+    }
+
+    private static <T> int length(T value, Writer<T> writer) {
+        MessageOutputStream os = new MessageOutputStream();
+
+        try {
+            writer.write(os, value);
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+
+        return os.size();
+    }
+
+    private interface Writer<T> {
+        void write(MessageOutputStream os, T value) throws IOException;
+    }
+}
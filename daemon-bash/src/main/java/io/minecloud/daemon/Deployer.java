@@ -26,8 +26,8 @@ import io.minecloud.models.nodes.Node;
 import io.minecloud.models.server.Server;
 import io.minecloud.models.server.ServerMetadata;
 import io.minecloud.models.server.ServerRepository;
+import io.minecloud.models.server.ServerStatusStore;
 import io.minecloud.models.server.type.ServerType;
-import redis.clients.jedis.Jedis;
 
 import java.io.File;
 import java.io.IOException;
@@ -43,7 +43,10 @@ public final class Deployer {
     private Deployer() {
     }
 
-    public static void deployServer(Network network, ServerType type, List<ServerMetadata> metadata) {
+    /**
+     * @return The started server, or null if a server of the same name is already running
+     */
+    public static Server deployServer(Network network, ServerType type, List<ServerMetadata> metadata) {
         Credentials mongoCreds = MineCloud.instance().mongo().credentials();
         Credentials redisCreds = MineCloud.instance().redis().credentials();
         ServerRepository repository = MineCloud.instance().mongo().repositoryBy(Server.class);
@@ -63,7 +66,7 @@ public final class Deployer {
 
         try {
             if (isRunning(server.name())) {
-                return;
+                return null;
             }
         } catch (IOException | InterruptedException ignored) {
         }
@@ -91,6 +94,7 @@ public final class Deployer {
         startApplication(processScript("/mnt/minecloud/server/bukkit/" + server.type().mod() + "/init.sh", env), server.name());
         repository.save(server);
         MineCloud.logger().info("Started server " + server.name() + " with container id " + server.containerId());
+        return server;
     }
 
     public static void deployBungee(Network network, BungeeType type) {
@@ -140,9 +144,7 @@ public final class Deployer {
     }
 
     public static void killServer(String name) {
-        try (Jedis jedis = MineCloudDaemon.instance().redis().grabResource()) {
-            jedis.hdel("server:" + name, "heartbeat");
-        }
+        ServerStatusStore.create(MineCloudDaemon.instance().redis()).clear(name);
 
         try {
             int pid = Deployer.pidOf(name);
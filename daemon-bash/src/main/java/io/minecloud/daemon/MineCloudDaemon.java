@@ -17,11 +17,22 @@ package io.minecloud.daemon;
 
 import io.minecloud.MineCloud;
 import io.minecloud.db.Credentials;
+import io.minecloud.db.mongo.AbstractMongoRepository;
 import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.RedisQueue;
 import io.minecloud.db.redis.msg.MessageType;
 import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.cluster.BungeeCreate;
+import io.minecloud.db.redis.msg.cluster.BungeeKill;
+import io.minecloud.db.redis.msg.cluster.ServerCreate;
+import io.minecloud.db.redis.msg.cluster.ServerCreated;
+import io.minecloud.db.redis.msg.cluster.ServerKill;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.db.redis.pubsub.RedisChannel;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
+import io.minecloud.db.redis.rpc.RpcRequest;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.BungeeRepository;
 import io.minecloud.models.bungee.type.BungeeType;
@@ -29,11 +40,10 @@ import io.minecloud.models.network.Network;
 import io.minecloud.models.nodes.Node;
 import io.minecloud.models.nodes.NodeRepository;
 import io.minecloud.models.server.Server;
-import io.minecloud.models.server.ServerMetadata;
 import io.minecloud.models.server.ServerRepository;
+import io.minecloud.models.server.ServerStatusStore;
 import io.minecloud.models.server.type.ServerType;
 import org.mongodb.morphia.query.Query;
-import redis.clients.jedis.Jedis;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -42,6 +52,7 @@ import java.nio.file.NoSuchFileException;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MineCloudDaemon {
     private static MineCloudDaemon instance;
@@ -49,52 +60,62 @@ public class MineCloudDaemon {
     private final String node;
     private final RedisDatabase redis;
     private final MongoDatabase mongo;
+    private final ServerStatusStore statusStore;
 
     private List<String> names;
 
     private MineCloudDaemon(Properties properties) {
         redis = MineCloud.instance().redis();
         mongo = MineCloud.instance().mongo();
+        statusStore = ServerStatusStore.create(redis);
         node = (String) properties.get("node-name");
 
         instance = this;
 
-        redis.addChannel(SimpleRedisChannel.create("server-create", redis)
-                .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
+        RedisQueue.create(RedisChannel.addressed("server-create", node), redis)
+                .consume(node, (message) -> {
+                    RpcRequest<ServerCreate> request = redis.rpc().request(node, message, ServerCreate.class);
+
+                    if (request == null) {
                         return;
                     }
 
-                    MessageInputStream stream = message.contents();
+                    ServerCreate command = request.body();
+                    Server server;
 
-                    if (!stream.readString().equalsIgnoreCase(node)) {
-                        return;
-                    }
+                    // every handled request is answered, so the caller can tell a failed deploy from a dead node
+                    try {
+                        Network network = mongo.repositoryBy(Network.class).findFirst(command.network());
+                        ServerType type = mongo.cached(ServerType.class, command.type());
 
-                    Network network = mongo.repositoryBy(Network.class).findFirst(stream.readString());
-                    ServerType type = mongo.repositoryBy(ServerType.class).findFirst(stream.readString());
-                    List<ServerMetadata> metadata = new ArrayList<>();
-                    int size = stream.readVarInt32();
+                        if (network == null || type == null) {
+                            request.fail("Unknown network " + command.network() + " or server type " + command.type());
+                            return;
+                        }
 
-                    for (int i = 0; i < size; i++) {
-                        metadata.add(new ServerMetadata(stream.readString(), stream.readString()));
+                        server = Deployer.deployServer(network, type, new ArrayList<>(command.metadata()));
+                    } catch (RuntimeException ex) {
+                        MineCloud.logger().log(Level.SEVERE, "Unable to deploy a server of type " + command.type(), ex);
+                        request.fail("Unable to deploy " + command.type() + ": " + ex.getMessage());
+                        return;
                     }
 
-                    Deployer.deployServer(network, type, metadata);
-                }));
-
-        redis.addChannel(SimpleRedisChannel.create("server-kill", redis)
-                .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
+                    if (server == null) {
+                        request.fail("A server of type " + command.type() + " with the same number is already running");
                         return;
                     }
 
-                    MessageInputStream stream = message.contents();
+                    request.reply(new ServerCreated(node, server.name(), server.containerId(), server.port()));
+                });
+
+        redis.addChannel(SimpleRedisChannel.create(RedisChannel.addressed("server-kill", node), redis)
+                .addCallback((message) -> {
+                    ServerKill command = MessageRegistry.decode(node, message, ServerKill.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Server server = mongo.repositoryBy(Server.class).findFirst(stream.readString());
+                    Server server = mongo.repositoryBy(Server.class).findFirst(command.server());
 
                     if (!server.node().name().equals(node)) {
                         MineCloud.logger().log(Level.SEVERE, "Invalid request was sent to kill a server " +
@@ -108,43 +129,33 @@ public class MineCloudDaemon {
                         MineCloud.logger().info("Killed server " + server.name()
                                 + " with container id " + server.containerId());
                         mongo.repositoryBy(Server.class).delete(server);
-                        try (Jedis jedis = this.redis.grabResource()) {
-                            jedis.hdel("server:" + server.entityId(), "heartbeat");
-                        }
+                        statusStore.clear(server.entityId());
                     } catch (IOException e) {
                         MineCloud.logger().log(Level.SEVERE, "Was unable to kill a server", e);
                     }
                 }));
 
-        redis.addChannel(SimpleRedisChannel.create("bungee-create", redis)
-                .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+        RedisQueue.create(RedisChannel.addressed("bungee-create", node), redis)
+                .consume(node, (message) -> {
+                    BungeeCreate command = MessageRegistry.decode(node, message, BungeeCreate.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Network network = mongo.repositoryBy(Network.class).findFirst(stream.readString());
-                    BungeeType type = mongo.repositoryBy(BungeeType.class).findFirst(stream.readString());
+                    Network network = mongo.repositoryBy(Network.class).findFirst(command.network());
+                    BungeeType type = mongo.cached(BungeeType.class, command.type());
 
                     Deployer.deployBungee(network, type);
-                }));
+                });
 
-        redis.addChannel(SimpleRedisChannel.create("bungee-kill", redis)
+        redis.addChannel(SimpleRedisChannel.create(RedisChannel.addressed("bungee-kill", node), redis)
                 .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+                    BungeeKill command = MessageRegistry.decode(node, message, BungeeKill.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Bungee bungee = mongo.repositoryBy(Bungee.class).findFirst(stream.readString());
+                    Bungee bungee = mongo.repositoryBy(Bungee.class).findFirst(command.bungee());
 
                     if (!bungee.node().name().equals(node)) {
                         MineCloud.logger().log(Level.SEVERE, "Invalid request was sent to kill a bungee " +
@@ -174,8 +185,8 @@ public class MineCloudDaemon {
                     if (!server.node().name().equals(node))
                         return;
 
-                    server.setContainerId(String.valueOf(Deployer.pidOf(server.name())));
-                    mongo.repositoryBy(Server.class).save(server);
+                    mongo.repositoryBy(Server.class)
+                            .set(server, "containerId", String.valueOf(Deployer.pidOf(server.name())));
                 }));
         redis.addChannel(SimpleRedisChannel.create("server-shutdown-notif", redis)
                 .addCallback((message) -> {
@@ -192,114 +203,111 @@ public class MineCloudDaemon {
 
         new StatisticsWatcher().start();
         ServerRepository repository = mongo.repositoryBy(Server.class);
-        OptionalInt port = repository.find(repository.createQuery().field("node").equal(node()))
-                .asList().stream().mapToInt(Server::port).sorted().max();
-        Deployer.PORT_COUNTER.set((port.isPresent() ? port.getAsInt() : 32811) + 1);
+        OptionalInt port;
 
-        while (!Thread.currentThread().isInterrupted()) {
-            this.redis.connected(); //Checks for Redis death, if it's dead it will reconnect.
-
-            BungeeRepository bungeeRepo = mongo.repositoryBy(Bungee.class);
-            Node node = node();
-            Query<Server> query = repository.createQuery()
-                    .field("node").equal(node);
-            List<Server> nodeServers = repository.find(query).asList();
-            names = nodeServers.stream()
-                    .map(Server::name)
-                    .collect(Collectors.toList());
-
-            nodeServers.stream().filter((s) -> s.ramUsage() != -1).forEach((server) -> {
-                File runDir = new File("/var/minecloud/" + server.name());
-
-                if (!runDir.exists()) {
-                    repository.delete(server);
-                    MineCloud.logger().info("Removed " + server.containerId() + " from DB due to not existing on node");
-                    return;
-                }
+        try (Stream<Server> servers = repository.stream(repository.createQuery().field("node").equal(node()),
+                AbstractMongoRepository.DEFAULT_BATCH_SIZE, "port")) {
+            port = servers.mapToInt(Server::port).max();
+        }
 
-                try {
-                    if ((System.currentTimeMillis() - Deployer.timeStarted(server.name())) < 600_000L) {
-                        return;
-                    }
+        Deployer.PORT_COUNTER.set((port.isPresent() ? port.getAsInt() : 32811) + 1);
 
-                    if (Deployer.isRunning(server.name())) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (MongoSession session = mongo.openSession()) {
+                BungeeRepository bungeeRepo = mongo.repositoryBy(Bungee.class);
+                Node node = node();
+                Query<Server> query = repository.createQuery()
+                        .field("node").equal(node);
+                List<Server> nodeServers = repository.find(query).asList();
+                names = nodeServers.stream()
+                        .map(Server::name)
+                        .collect(Collectors.toList());
+
+                nodeServers.stream().filter((s) -> s.ramUsage() != -1).forEach((server) -> {
+                    File runDir = new File("/var/minecloud/" + server.name());
+
+                    if (!runDir.exists()) {
+                        session.delete(server);
+                        MineCloud.logger().info("Removed " + server.containerId() + " from DB due to not existing on node");
                         return;
                     }
 
-                    Deployer.killServer(server.name());
-                    repository.delete(server);
-                    names.remove(server.name());
-                    try (Jedis jedis = this.redis.grabResource()) {
-                        jedis.hdel("server:" + server.entityId(), "heartbeat");
-                    }
-                    MineCloud.logger().info("Removed dead server (" + server.name() + ")");
-                } catch (IOException | InterruptedException ex) {
-                    if (!(ex instanceof NoSuchFileException)) {
-                        MineCloud.logger().log(Level.SEVERE, "Was unable to check if server is running", ex);
-                    }
-                }
-            });
-
-            try (Jedis jedis = this.redis.grabResource()) {
-                nodeServers.stream().filter((s) -> s.ramUsage() != -1).forEach(server ->  {
-                    Map<String, String> hResult = jedis.hgetAll("server:" + server.entityId());
+                    try {
+                        if ((System.currentTimeMillis() - Deployer.timeStarted(server.name())) < 600_000L) {
+                            return;
+                        }
 
-                    if (hResult == null || hResult.isEmpty()) {
-                        return; //Prevent loop from dying.
-                    }
+                        if (Deployer.isRunning(server.name())) {
+                            return;
+                        }
 
-                    long heartbeat = Long.valueOf(hResult.get("heartbeat"));
-                    long difference = System.currentTimeMillis() - heartbeat;
-                    if (difference > 35000L) {
                         Deployer.killServer(server.name());
-                        repository.delete(server);
+                        session.delete(server);
                         names.remove(server.name());
-                        MineCloud.logger().log(Level.WARNING, "Found server not updated in 20s, killing (" + server.name() + ")");
+                        statusStore.clear(server.entityId());
+                        MineCloud.logger().info("Removed dead server (" + server.name() + ")");
+                    } catch (IOException | InterruptedException ex) {
+                        if (!(ex instanceof NoSuchFileException)) {
+                            MineCloud.logger().log(Level.SEVERE, "Was unable to check if server is running", ex);
+                        }
                     }
                 });
-            }
 
-            if (bungeeRepo.findOne("_id", node.publicIp()) != null) {
-                try {
-                    if ((System.currentTimeMillis() - Deployer.timeStarted("bungee")) > 600_000L & !Deployer.isRunning("bungee")) {
-                        bungeeRepo.deleteById(node.publicIp());
-                        MineCloud.logger().info("Removed dead bungee (" + node.publicIp() + ")");
+                List<Server> startedServers = nodeServers.stream()
+                        .filter((s) -> s.ramUsage() != -1)
+                        .collect(Collectors.toList());
+
+                statusStore.statusOf(startedServers).forEach((name, status) -> {
+                    if (status.age() > 35000L) {
+                        Deployer.killServer(name);
+                        session.delete(Server.class, name);
+                        names.remove(name);
+                        MineCloud.logger().log(Level.WARNING, "Found server not updated in 35s, killing (" + name + ")");
                     }
-                } catch (IOException | InterruptedException ex) {
-                    if (!(ex instanceof NoSuchFileException)) {
-                        MineCloud.logger().log(Level.SEVERE, "Was unable to check if bungee is running", ex);
+                });
+
+                if (bungeeRepo.findOne("_id", node.publicIp()) != null) {
+                    try {
+                        if ((System.currentTimeMillis() - Deployer.timeStarted("bungee")) > 600_000L & !Deployer.isRunning("bungee")) {
+                            session.delete(Bungee.class, node.publicIp());
+                            MineCloud.logger().info("Removed dead bungee (" + node.publicIp() + ")");
+                        }
+                    } catch (IOException | InterruptedException ex) {
+                        if (!(ex instanceof NoSuchFileException)) {
+                            MineCloud.logger().log(Level.SEVERE, "Was unable to check if bungee is running", ex);
+                        }
                     }
                 }
-            }
 
-            File appContainer = new File("/var/minecloud");
+                File appContainer = new File("/var/minecloud");
 
-            names.add("bungee"); // don't remove bungee servers
+                names.add("bungee"); // don't remove bungee servers
 
-            if (!appContainer.isDirectory()) {
-                appContainer.delete();
-            }
+                if (!appContainer.isDirectory()) {
+                    appContainer.delete();
+                }
 
-            if (!appContainer.exists()) {
-                appContainer.mkdirs();
-            }
+                if (!appContainer.exists()) {
+                    appContainer.mkdirs();
+                }
 
-            for (File f : appContainer.listFiles(File::isDirectory)) {
-                if (!names.contains(f.getName())) {
-                    Deployer.killServer(f.getName());
+                for (File f : appContainer.listFiles(File::isDirectory)) {
+                    if (!names.contains(f.getName())) {
+                        Deployer.killServer(f.getName());
+                    }
                 }
-            }
 
-            /* Startup timeout */
-            nodeServers.stream().filter((s) -> s.ramUsage() == -1).forEach((s) -> {
-                long timeOut = s.type().timeOut() * 1000L; // to ms
+                /* Startup timeout */
+                nodeServers.stream().filter((s) -> s.ramUsage() == -1).forEach((s) -> {
+                    long timeOut = s.type().timeOut() * 1000L; // to ms
 
-                if ((System.currentTimeMillis() - s.startTime()) >= timeOut) {
-                    Deployer.killServer(s.name());
-                    repository.delete(s);
-                    names.remove(s.name());
-                }
-            });
+                    if ((System.currentTimeMillis() - s.startTime()) >= timeOut) {
+                        Deployer.killServer(s.name());
+                        session.delete(s);
+                        names.remove(s.name());
+                    }
+                });
+            }
 
             try {
                 Thread.sleep(2000L);
@@ -16,10 +16,12 @@
 package io.minecloud.daemon;
 
 import io.minecloud.MineCloud;
+import io.minecloud.db.mongo.Criteria;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.nodes.CoreMetadata;
 import io.minecloud.models.nodes.Node;
 import io.minecloud.models.server.Server;
+import io.minecloud.models.server.ServerStatusStore;
 
 import java.io.File;
 import java.io.IOException;
@@ -111,12 +113,13 @@ public class StatisticsWatcher extends Thread {
                 prevTotal[i] = totalCpuTime;
             });
 
-            Collection<Server> servers = MineCloud.instance().mongo()
-                    .repositoryBy(Server.class)
-                    .findAll((server) -> server.node().name().equals(node.name()));
+            Collection<Server> servers = ServerStatusStore.create(MineCloud.instance().redis())
+                    .merge(MineCloud.instance().mongo()
+                            .repositoryBy(Server.class)
+                            .findAll(Criteria.create(Server.class).references("node", node)));
             Collection<Bungee> bungees = MineCloud.instance().mongo()
                     .repositoryBy(Bungee.class)
-                    .findAll((bungee) -> bungee.node().name().equals(node.name()));
+                    .findAll(Criteria.create(Bungee.class).references("node", node));
             int ramUsed = 0;
 
             for (Server server : servers) {
@@ -127,8 +130,6 @@ public class StatisticsWatcher extends Thread {
                 ramUsed += bungee.ramUsage();
             }
 
-            node.setAvailableRam(node.type().ram() - ramUsed);
-
             List<CoreMetadata> cores = new ArrayList<>();
 
             IntStream.range(0, usages.length).forEach((i) -> {
@@ -140,8 +141,10 @@ public class StatisticsWatcher extends Thread {
                 cores.add(metadata);
             });
 
-            node.setCoreMetadata(cores);
-            MineCloud.instance().mongo().repositoryBy(Node.class).save(node);
+            MineCloud.instance().mongo().repositoryBy(Node.class).update(node)
+                    .set("availableRam", (double) (node.type().ram() - ramUsed))
+                    .set("coreMetadata", cores)
+                    .apply();
 
             try {
                 Thread.sleep(1000L);
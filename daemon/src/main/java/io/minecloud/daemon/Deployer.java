@@ -20,6 +20,7 @@ import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.DockerException;
 import com.spotify.docker.client.messages.*;
 import io.minecloud.MineCloud;
+import io.minecloud.MineCloudException;
 import io.minecloud.db.Credentials;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.BungeeRepository;
@@ -36,6 +37,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
@@ -44,7 +47,11 @@ public final class Deployer {
 
     private Deployer() {}
 
-    public static void deployServer(Network network, ServerType type, List<ServerMetadata> metadata) {
+    /**
+     * @return Future completed with the server once its container is running, or failed once all attempts
+     *         to start it have failed
+     */
+    public static CompletableFuture<Server> deployServer(Network network, ServerType type, List<ServerMetadata> metadata) {
         ServerRepository repository = MineCloud.instance().mongo().repositoryBy(Server.class);
         Server server = new Server();
 
@@ -61,6 +68,8 @@ public final class Deployer {
 
         repository.save(server);
 
+        CompletableFuture<Server> future = new CompletableFuture<>();
+
         new Thread(() -> {
             boolean deployed = true;
 
@@ -71,8 +80,33 @@ public final class Deployer {
             if (!deployed) {
                 failedStart(network);
                 repository.deleteById(server.entityId());
+                future.completeExceptionally(new MineCloudException("Unable to start container for " + server.name()));
+                return;
             }
+
+            future.complete(server);
         }, server.name() + " creator").start();
+
+        return future;
+    }
+
+    /**
+     * @return Host port bound to the server's Minecraft port, or -1 if it could not be found
+     */
+    public static int portOf(Server server) {
+        try {
+            ContainerInfo info = MineCloudDaemon.instance().dockerClient().inspectContainer(server.containerId());
+
+            for (Map.Entry<String, List<PortBinding>> entry : info.networkSettings().ports().entrySet()) {
+                if (entry.getKey().contains("25565") && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                    return Integer.parseInt(entry.getValue().get(0).hostPort());
+                }
+            }
+        } catch (DockerException | InterruptedException | NumberFormatException ex) {
+            MineCloud.logger().log(Level.WARNING, "Was unable to find the port of " + server.name(), ex);
+        }
+
+        return -1;
     }
 
     public static boolean deployServer(Server server) {
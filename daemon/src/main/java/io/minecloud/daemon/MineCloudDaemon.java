@@ -23,17 +23,26 @@ import io.minecloud.MineCloud;
 import io.minecloud.db.Credentials;
 import io.minecloud.db.mongo.AbstractMongoRepository;
 import io.minecloud.db.mongo.MongoDatabase;
+import io.minecloud.db.mongo.MongoSession;
 import io.minecloud.db.redis.RedisDatabase;
+import io.minecloud.db.redis.RedisQueue;
 import io.minecloud.db.redis.msg.MessageType;
 import io.minecloud.db.redis.msg.binary.MessageInputStream;
+import io.minecloud.db.redis.msg.cluster.BungeeCreate;
+import io.minecloud.db.redis.msg.cluster.BungeeKill;
+import io.minecloud.db.redis.msg.cluster.ServerCreate;
+import io.minecloud.db.redis.msg.cluster.ServerCreated;
+import io.minecloud.db.redis.msg.cluster.ServerKill;
+import io.minecloud.db.redis.msg.schema.MessageRegistry;
+import io.minecloud.db.redis.pubsub.RedisChannel;
 import io.minecloud.db.redis.pubsub.SimpleRedisChannel;
+import io.minecloud.db.redis.rpc.RpcRequest;
 import io.minecloud.models.bungee.Bungee;
 import io.minecloud.models.bungee.type.BungeeType;
 import io.minecloud.models.network.Network;
 import io.minecloud.models.nodes.Node;
 import io.minecloud.models.nodes.NodeRepository;
 import io.minecloud.models.server.Server;
-import io.minecloud.models.server.ServerMetadata;
 import io.minecloud.models.server.ServerRepository;
 import io.minecloud.models.server.type.ServerType;
 import org.mongodb.morphia.query.Query;
@@ -41,9 +50,11 @@ import org.mongodb.morphia.query.Query;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
+import java.util.stream.Stream;
 
 public class MineCloudDaemon {
     private static MineCloudDaemon instance;
@@ -61,42 +72,61 @@ public class MineCloudDaemon {
         node = (String) properties.get("node-name");
         instance = this;
 
-        redis.addChannel(SimpleRedisChannel.create("server-create", redis)
-                .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+        RedisQueue.create(RedisChannel.addressed("server-create", node), redis)
+                .consumeAsync(node, (message) -> {
+                    RpcRequest<ServerCreate> request = redis.rpc().request(node, message, ServerCreate.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node)) {
-                        return;
+                    if (request == null) {
+                        return CompletableFuture.completedFuture(null);
                     }
 
-                    Network network = mongo.repositoryBy(Network.class).findFirst(stream.readString());
-                    ServerType type = mongo.repositoryBy(ServerType.class).findFirst(stream.readString());
-                    List<ServerMetadata> metadata = new ArrayList<>();
-                    int size = stream.readVarInt32();
+                    ServerCreate command = request.body();
+                    Network network;
+                    ServerType type;
+                    CompletableFuture<Server> deploy;
 
-                    for (int i = 0; i < size; i++) {
-                        metadata.add(new ServerMetadata(stream.readString(), stream.readString()));
+                    // every handled request is answered, so the caller can tell a failed deploy from a dead node
+                    try {
+                        network = mongo.repositoryBy(Network.class).findFirst(command.network());
+                        type = mongo.cached(ServerType.class, command.type());
+
+                        if (network == null || type == null) {
+                            request.fail("Unknown network " + command.network() + " or server type " + command.type());
+                            return CompletableFuture.completedFuture(null);
+                        }
+
+                        deploy = Deployer.deployServer(network, type, new ArrayList<>(command.metadata()));
+                    } catch (RuntimeException ex) {
+                        MineCloud.logger().log(Level.SEVERE, "Unable to deploy a server of type " + command.type(), ex);
+                        request.fail("Unable to deploy " + command.type() + ": " + ex.getMessage());
+                        return CompletableFuture.completedFuture(null);
                     }
 
-                    Deployer.deployServer(network, type, metadata);
-                }));
+                    // the container starts in the background while the next entry is taken, the entry is
+                    // acknowledged once it is answered; a failed deploy already went through its own start
+                    // attempts, so it is reported instead of being retried by the queue
+                    return deploy.handle((server, ex) -> {
+                        if (ex == null) {
+                            request.reply(new ServerCreated(node, server.name(), server.containerId(),
+                                    Deployer.portOf(server)));
+                        } else {
+                            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+
+                            request.fail("Failed to deploy " + type.name() + ": " + cause.getMessage());
+                        }
+
+                        return null;
+                    });
+                });
 
-        redis.addChannel(SimpleRedisChannel.create("server-kill", redis)
+        redis.addChannel(SimpleRedisChannel.create(RedisChannel.addressed("server-kill", node), redis)
                 .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+                    ServerKill command = MessageRegistry.decode(node, message, ServerKill.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Server server = mongo.repositoryBy(Server.class).findFirst(stream.readString());
+                    Server server = mongo.repositoryBy(Server.class).findFirst(command.server());
 
                     if (!server.node().name().equals(node)) {
                         MineCloud.logger().log(Level.SEVERE, "Invalid request was sent to kill a server " +
@@ -115,35 +145,27 @@ public class MineCloudDaemon {
                     }
                 }));
 
-        redis.addChannel(SimpleRedisChannel.create("bungee-create", redis)
-                .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+        RedisQueue.create(RedisChannel.addressed("bungee-create", node), redis)
+                .consume(node, (message) -> {
+                    BungeeCreate command = MessageRegistry.decode(node, message, BungeeCreate.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Network network = mongo.repositoryBy(Network.class).findFirst(stream.readString());
-                    BungeeType type = mongo.repositoryBy(BungeeType.class).findFirst(stream.readString());
+                    Network network = mongo.repositoryBy(Network.class).findFirst(command.network());
+                    BungeeType type = mongo.cached(BungeeType.class, command.type());
 
                     Deployer.deployBungee(network, type);
-                }));
+                });
 
-        redis.addChannel(SimpleRedisChannel.create("bungee-kill", redis)
+        redis.addChannel(SimpleRedisChannel.create(RedisChannel.addressed("bungee-kill", node), redis)
                 .addCallback((message) -> {
-                    if (message.type() != MessageType.BINARY) {
-                        return;
-                    }
-
-                    MessageInputStream stream = message.contents();
+                    BungeeKill command = MessageRegistry.decode(node, message, BungeeKill.class);
 
-                    if (!stream.readString().equalsIgnoreCase(node))
+                    if (command == null)
                         return;
 
-                    Bungee bungee = mongo.repositoryBy(Bungee.class).findFirst(stream.readString());
+                    Bungee bungee = mongo.repositoryBy(Bungee.class).findFirst(command.bungee());
 
                     if (!bungee.node().name().equals(node)) {
                         MineCloud.logger().log(Level.SEVERE, "Invalid request was sent to kill a bungee " +
@@ -188,7 +210,7 @@ public class MineCloudDaemon {
                             MineCloud.logger().log(Level.INFO, "Set " + server.name() + "'s port to " + server.port());
                         });
 
-                        mongo.repositoryBy(Server.class).save(server);
+                        mongo.repositoryBy(Server.class).set(server, "port", server.port());
                     } catch (Exception e) {
                         MineCloud.logger().log(Level.SEVERE, "Was unable to set the port of a started server", e);
                     }
@@ -199,68 +221,67 @@ public class MineCloudDaemon {
         new StatisticsWatcher().start();
 
         while (!Thread.currentThread().isInterrupted()) {
-            try {
-                dockerClient.listContainers(DockerClient.ListContainersParam.allContainers()).stream()
-                        .filter((container) -> !container.status().toLowerCase().contains("up") &&
-                                ((System.currentTimeMillis() / 1000L) - container.created()) > 5L)
-                        .forEach((container) -> {
-                            try {
-                                String name = container.names() == null || container.names().isEmpty() ? "null" : container.names().get(0);
-                                dockerClient.removeContainer(container.id());
-
-                                if (container.image().contains("minecloud")) {
-                                    String type = container.image().substring(9);
-
-                                    switch (type.toLowerCase()) {
-                                        case "bungee":
-                                            AbstractMongoRepository<Bungee> repository = mongo.repositoryBy(Bungee.class);
-                                            Query<Bungee> query = repository.createQuery()
-                                                    .field("_id").equal(node().publicIp());
-                                            repository.deleteByQuery(query);
-                                            break;
-
-                                        case "server":
-                                            Server server = mongo.repositoryBy(Server.class)
-                                                    .findOne("containerId", container.names().get(0));
-
-                                            if (server != null) {
-                                                mongo.repositoryBy(Server.class).delete(server);
-                                            }
-                                            break;
+            try (MongoSession session = mongo.openSession()) {
+                try {
+                    dockerClient.listContainers(DockerClient.ListContainersParam.allContainers()).stream()
+                            .filter((container) -> !container.status().toLowerCase().contains("up") &&
+                                    ((System.currentTimeMillis() / 1000L) - container.created()) > 5L)
+                            .forEach((container) -> {
+                                try {
+                                    String name = container.names() == null || container.names().isEmpty() ? "null" : container.names().get(0);
+                                    dockerClient.removeContainer(container.id());
+
+                                    if (container.image().contains("minecloud")) {
+                                        String type = container.image().substring(9);
+
+                                        switch (type.toLowerCase()) {
+                                            case "bungee":
+                                                session.delete(Bungee.class, node().publicIp());
+                                                break;
+
+                                            case "server":
+                                                ServerRepository servers = mongo.repositoryBy(Server.class);
+
+                                                session.delete(servers.createQuery()
+                                                        .field("containerId").equal(container.names().get(0)));
+                                                break;
+                                        }
                                     }
+
+                                    MineCloud.logger().info("Killed dead container " + container.id() + " (" + name + ")");
+                                } catch (DockerException | InterruptedException e) {
+                                    MineCloud.logger().log(Level.SEVERE, "Was unable to kill exited container " + container.id(),
+                                            e);
                                 }
+                            });
+                    ServerRepository repository = mongo.repositoryBy(Server.class);
+                    Query<Server> query = repository.createQuery()
+                            .field("node").equal(node())
+                            .field("port").notEqual(-1)
+                            .field("tps").notEqual(-1);
 
-                                MineCloud.logger().info("Killed dead container " + container.id() + " (" + name + ")");
-                            } catch (DockerException | InterruptedException e) {
-                                MineCloud.logger().log(Level.SEVERE, "Was unable to kill exited container " + container.id(),
-                                        e);
-                            }
-                        });
-                ServerRepository repository = mongo.repositoryBy(Server.class);
-                Query<Server> query = repository.createQuery()
-                        .field("node").equal(node())
-                        .field("port").notEqual(-1)
-                        .field("tps").notEqual(-1);
+                    try (Stream<Server> servers = repository.stream(query, AbstractMongoRepository.DEFAULT_BATCH_SIZE, "containerId")) {
+                        servers.forEach((server) -> {
+                            boolean exists;
 
-                repository.find(query).asList().forEach((server) -> {
-                    boolean exists;
+                            try {
+                                dockerClient.inspectContainer(server.containerId());
+                                exists = true;
+                            } catch (DockerException | InterruptedException ex) {
+                                exists = false;
+                            }
 
-                    try {
-                        dockerClient.inspectContainer(server.containerId());
-                        exists = true;
-                    } catch (DockerException | InterruptedException ex) {
-                        exists = false;
-                    }
+                            if (exists) {
+                                return;
+                            }
 
-                    if (exists) {
-                        return;
+                            session.delete(server);
+                            MineCloud.logger().info("Removed " + server.containerId() + " from DB due to not existing as a container");
+                        });
                     }
-
-                    repository.delete(server);
-                    MineCloud.logger().info("Removed " + server.containerId() + " from DB due to not existing as a container");
-                });
-            } catch (DockerException | InterruptedException e) {
-                MineCloud.logger().log(Level.SEVERE, "Was unable to list containers for update", e);
+                } catch (DockerException | InterruptedException e) {
+                    MineCloud.logger().log(Level.SEVERE, "Was unable to list containers for update", e);
+                }
             }
 
             try {